@@ -3,6 +3,9 @@ package com.shas.smart_home_automation_system.config;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.shas.smart_home_automation_system.util.BinaryCacheCodec;
+import com.shas.smart_home_automation_system.util.CacheTypeRegistry;
+import com.shas.smart_home_automation_system.util.NearCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -14,9 +17,14 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
 import java.util.HashMap;
@@ -38,6 +46,15 @@ public class RedisConfig {
     @Value("${spring.redis.database:0}")
     private int redisDatabase;
 
+    @Value("${app.cache.codec.format:binary}")
+    private String codecFormat;
+
+    @Value("${app.cache.codec.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${app.cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
@@ -53,14 +70,48 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory());
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(redisObjectMapper()));
+        template.setValueSerializer(cacheValueSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer(redisObjectMapper()));
+        template.setHashValueSerializer(cacheValueSerializer());
         template.setEnableTransactionSupport(true);
         template.afterPropertiesSet();
         return template;
     }
 
+    @Bean
+    public StringRedisTemplate stringRedisTemplate() {
+        return new StringRedisTemplate(redisConnectionFactory());
+    }
+
+    /**
+     * Messages are dispatched on one thread so listeners see them in publish order; the container's
+     * default executor runs every message on its own thread. Listeners only hand messages off.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(NearCache nearCache) {
+        ThreadPoolTaskExecutor dispatcher = new ThreadPoolTaskExecutor();
+        dispatcher.setCorePoolSize(1);
+        dispatcher.setMaxPoolSize(1);
+        dispatcher.setDaemon(true);
+        dispatcher.setThreadNamePrefix("redis-listener-");
+        dispatcher.initialize();
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory());
+        container.setTaskExecutor(dispatcher);
+        container.addMessageListener(nearCache, new ChannelTopic(NearCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public RedisSerializer<Object> cacheValueSerializer() {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper());
+        if ("json".equalsIgnoreCase(codecFormat)) {
+            return jsonSerializer;
+        }
+        return new BinaryCacheCodec(new CacheTypeRegistry(), jsonSerializer, compressionEnabled, compressionThreshold);
+    }
+
     @Bean
     public ObjectMapper redisObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -79,7 +130,7 @@ public class RedisConfig {
                 .entryTtl(Duration.ofMinutes(30))
                 .disableCachingNullValues()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer(redisObjectMapper())));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer()));
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
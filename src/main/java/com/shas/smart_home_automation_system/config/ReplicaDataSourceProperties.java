@@ -0,0 +1,32 @@
+package com.shas.smart_home_automation_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Credentials for the replicas; the primary's are used when not set.
+     */
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    private int minimumIdle = 2;
+
+    private Duration maxLag = Duration.ofSeconds(5);
+}
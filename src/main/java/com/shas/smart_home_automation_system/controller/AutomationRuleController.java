@@ -0,0 +1,44 @@
+package com.shas.smart_home_automation_system.controller;
+
+import com.shas.smart_home_automation_system.dto.AutomationRuleDto;
+import com.shas.smart_home_automation_system.service.AutomationRuleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/automation-rules")
+@RequiredArgsConstructor
+public class AutomationRuleController {
+
+    private final AutomationRuleService automationRuleService;
+
+    @GetMapping("/home/{homeId}")
+    public ResponseEntity<List<AutomationRuleDto>> getHomeRules(@PathVariable Long homeId) {
+        List<AutomationRuleDto> rules = automationRuleService.getHomeRules(homeId);
+        return ResponseEntity.ok(rules);
+    }
+
+    @PostMapping
+    public ResponseEntity<AutomationRuleDto> createRule(@Valid @RequestBody AutomationRuleDto ruleDto) {
+        AutomationRuleDto createdRule = automationRuleService.createRule(ruleDto);
+        return ResponseEntity.ok(createdRule);
+    }
+
+    @PutMapping("/{ruleId}")
+    public ResponseEntity<AutomationRuleDto> updateRule(
+            @PathVariable Long ruleId,
+            @Valid @RequestBody AutomationRuleDto ruleDto) {
+        AutomationRuleDto updatedRule = automationRuleService.updateRule(ruleId, ruleDto);
+        return ResponseEntity.ok(updatedRule);
+    }
+
+    @DeleteMapping("/{ruleId}")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long ruleId) {
+        automationRuleService.deleteRule(ruleId);
+        return ResponseEntity.noContent().build();
+    }
+}
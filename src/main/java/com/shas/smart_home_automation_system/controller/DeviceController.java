@@ -1,13 +1,22 @@
 package com.shas.smart_home_automation_system.controller;
 
+import com.shas.smart_home_automation_system.dto.BulkDeviceStatusRequestDto;
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.DeviceStateHistoryPageDto;
 import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.service.DeviceEventService;
 import com.shas.smart_home_automation_system.service.DeviceService;
+import com.shas.smart_home_automation_system.service.DeviceStateHistoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,17 +25,41 @@ import java.util.List;
 public class DeviceController {
 
     private final DeviceService deviceService;
+    private final DeviceEventService deviceEventService;
+    private final DeviceStateHistoryService deviceStateHistoryService;
 
     @GetMapping
     public ResponseEntity<List<DeviceDto>> getUserDevices() {
         return ResponseEntity.ok(deviceService.getUserDevices());
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDto<DeviceDto>> getUserDevicesPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam Integer limit
+    ) {
+        return ResponseEntity.ok(deviceService.getUserDevices(after, limit));
+    }
+
     @GetMapping("/home/{homeId}")
     public ResponseEntity<List<DeviceDto>> getHomeDevices(@PathVariable Long homeId) {
         return ResponseEntity.ok(deviceService.getHomeDevices(homeId));
     }
 
+    @GetMapping(value = "/home/{homeId}", params = "limit")
+    public ResponseEntity<CursorPageDto<DeviceDto>> getHomeDevicesPage(
+            @PathVariable Long homeId,
+            @RequestParam(required = false) Long after,
+            @RequestParam Integer limit
+    ) {
+        return ResponseEntity.ok(deviceService.getHomeDevices(homeId, after, limit));
+    }
+
+    @GetMapping(value = "/home/{homeId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeHomeEvents(@PathVariable Long homeId) {
+        return deviceEventService.subscribe(homeId);
+    }
+
     @PostMapping
     public ResponseEntity<DeviceDto> createDevice(@Valid @RequestBody DeviceDto deviceDto) {
         return ResponseEntity.ok(deviceService.createDevice(deviceDto));
@@ -40,6 +73,21 @@ public class DeviceController {
         return ResponseEntity.ok(deviceService.updateDeviceStatus(deviceId, status));
     }
 
+    @PatchMapping("/status")
+    public ResponseEntity<List<DeviceDto>> updateDeviceStatuses(@Valid @RequestBody BulkDeviceStatusRequestDto request) {
+        return ResponseEntity.ok(deviceService.updateDeviceStatuses(request.getDeviceIds(), request.getStatus()));
+    }
+
+    @GetMapping("/{deviceId}/history")
+    public ResponseEntity<DeviceStateHistoryPageDto> getDeviceHistory(
+            @PathVariable Long deviceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(deviceStateHistoryService.getHistory(deviceId, before, beforeId, limit));
+    }
+
     @DeleteMapping("/{deviceId}")
     public ResponseEntity<Void> deleteDevice(@PathVariable Long deviceId) {
         deviceService.deleteDevice(deviceId);
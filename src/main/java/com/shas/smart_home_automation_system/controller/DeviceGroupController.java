@@ -0,0 +1,60 @@
+package com.shas.smart_home_automation_system.controller;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.DeviceGroupDto;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.service.DeviceGroupService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/device-groups")
+@RequiredArgsConstructor
+public class DeviceGroupController {
+
+    private final DeviceGroupService deviceGroupService;
+
+    @GetMapping("/home/{homeId}")
+    public ResponseEntity<List<DeviceGroupDto>> getHomeGroups(@PathVariable Long homeId) {
+        List<DeviceGroupDto> groups = deviceGroupService.getHomeGroups(homeId);
+        return ResponseEntity.ok(groups);
+    }
+
+    @GetMapping("/{groupId}")
+    public ResponseEntity<DeviceGroupDto> getGroupById(@PathVariable Long groupId) {
+        DeviceGroupDto group = deviceGroupService.getGroupById(groupId);
+        return ResponseEntity.ok(group);
+    }
+
+    @PostMapping
+    public ResponseEntity<DeviceGroupDto> createGroup(@Valid @RequestBody DeviceGroupDto groupDto) {
+        DeviceGroupDto createdGroup = deviceGroupService.createGroup(groupDto);
+        return ResponseEntity.ok(createdGroup);
+    }
+
+    @PutMapping("/{groupId}")
+    public ResponseEntity<DeviceGroupDto> updateGroup(
+            @PathVariable Long groupId,
+            @Valid @RequestBody DeviceGroupDto groupDto) {
+        DeviceGroupDto updatedGroup = deviceGroupService.updateGroup(groupId, groupDto);
+        return ResponseEntity.ok(updatedGroup);
+    }
+
+    @PatchMapping("/{groupId}/status")
+    public ResponseEntity<List<DeviceDto>> updateGroupStatus(
+            @PathVariable Long groupId,
+            @RequestParam DeviceStatus status
+    ) {
+        return ResponseEntity.ok(deviceGroupService.updateGroupStatus(groupId, status));
+    }
+
+    @DeleteMapping("/{groupId}")
+    public ResponseEntity<Void> deleteGroup(@PathVariable Long groupId) {
+        deviceGroupService.deleteGroup(groupId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,12 +1,20 @@
 package com.shas.smart_home_automation_system.controller;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
+import com.shas.smart_home_automation_system.dto.EnergyReportDto;
 import com.shas.smart_home_automation_system.dto.HomeDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningRequestDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningResultDto;
+import com.shas.smart_home_automation_system.service.EnergyConsumptionService;
+import com.shas.smart_home_automation_system.service.HomeProvisioningService;
 import com.shas.smart_home_automation_system.service.HomeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,6 +23,8 @@ import java.util.List;
 public class HomeController {
 
     private final HomeService homeService;
+    private final HomeProvisioningService homeProvisioningService;
+    private final EnergyConsumptionService energyConsumptionService;
 
     @GetMapping
     public ResponseEntity<List<HomeDto>> getUserHomes() {
@@ -22,12 +32,29 @@ public class HomeController {
         return ResponseEntity.ok(homes);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDto<HomeDto>> getUserHomesPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam Integer limit) {
+        CursorPageDto<HomeDto> homes = homeService.getUserHomes(after, limit);
+        return ResponseEntity.ok(homes);
+    }
+
     @GetMapping("/{homeId}")
     public ResponseEntity<HomeDto> getHomeById(@PathVariable Long homeId) {
         HomeDto home = homeService.getHomeById(homeId);
         return ResponseEntity.ok(home);
     }
 
+    @GetMapping("/{homeId}/energy")
+    public ResponseEntity<EnergyReportDto> getEnergyReport(
+            @PathVariable Long homeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        EnergyReportDto report = energyConsumptionService.getEnergyReport(homeId, from, to);
+        return ResponseEntity.ok(report);
+    }
+
     @PostMapping
     public ResponseEntity<HomeDto> createHome(@Valid @RequestBody HomeDto homeDto) {
         HomeDto createdHome = homeService.createHome(homeDto);
@@ -42,6 +69,14 @@ public class HomeController {
         return ResponseEntity.ok(updatedHome);
     }
 
+    @PostMapping("/{homeId}/provision")
+    public ResponseEntity<HomeProvisioningResultDto> provisionHome(
+            @PathVariable Long homeId,
+            @Valid @RequestBody HomeProvisioningRequestDto request) {
+        HomeProvisioningResultDto result = homeProvisioningService.provisionHome(homeId, request);
+        return ResponseEntity.ok(result);
+    }
+
     @DeleteMapping("/{homeId}")
     public ResponseEntity<Void> deleteHome(@PathVariable Long homeId) {
         homeService.deleteHome(homeId);
@@ -0,0 +1,38 @@
+package com.shas.smart_home_automation_system.controller;
+
+import com.shas.smart_home_automation_system.dto.MetricBatchRequestDto;
+import com.shas.smart_home_automation_system.dto.MetricIngestResultDto;
+import com.shas.smart_home_automation_system.dto.MetricSeriesDto;
+import com.shas.smart_home_automation_system.service.MetricIngestionService;
+import com.shas.smart_home_automation_system.service.MetricRollupService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/metrics")
+@RequiredArgsConstructor
+public class MetricController {
+
+    private final MetricIngestionService metricIngestionService;
+    private final MetricRollupService metricRollupService;
+
+    @PostMapping
+    public ResponseEntity<MetricIngestResultDto> ingestMetrics(@Valid @RequestBody MetricBatchRequestDto request) {
+        return ResponseEntity.accepted().body(metricIngestionService.ingest(request.getReadings()));
+    }
+
+    @GetMapping("/devices/{deviceId}/series")
+    public ResponseEntity<MetricSeriesDto> getSeries(
+            @PathVariable Long deviceId,
+            @RequestParam String metricType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String resolution) {
+        return ResponseEntity.ok(metricRollupService.getSeries(deviceId, metricType, from, to, resolution));
+    }
+}
@@ -1,5 +1,6 @@
 package com.shas.smart_home_automation_system.controller;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.RoomDto;
 import com.shas.smart_home_automation_system.service.RoomService;
 import jakarta.validation.Valid;
@@ -22,12 +23,29 @@ public class RoomController {
         return ResponseEntity.ok(rooms);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDto<RoomDto>> getUserRoomsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam Integer limit) {
+        CursorPageDto<RoomDto> rooms = roomService.getUserRooms(after, limit);
+        return ResponseEntity.ok(rooms);
+    }
+
     @GetMapping("/home/{homeId}")
     public ResponseEntity<List<RoomDto>> getHomeRooms(@PathVariable Long homeId) {
         List<RoomDto> rooms = roomService.getHomeRooms(homeId);
         return ResponseEntity.ok(rooms);
     }
 
+    @GetMapping(value = "/home/{homeId}", params = "limit")
+    public ResponseEntity<CursorPageDto<RoomDto>> getHomeRoomsPage(
+            @PathVariable Long homeId,
+            @RequestParam(required = false) Long after,
+            @RequestParam Integer limit) {
+        CursorPageDto<RoomDto> rooms = roomService.getHomeRooms(homeId, after, limit);
+        return ResponseEntity.ok(rooms);
+    }
+
     @GetMapping("/{roomId}")
     public ResponseEntity<RoomDto> getRoomById(@PathVariable Long roomId) {
         RoomDto room = roomService.getRoomById(roomId);
@@ -0,0 +1,30 @@
+package com.shas.smart_home_automation_system.controller;
+
+import com.shas.smart_home_automation_system.dto.SceneDto;
+import com.shas.smart_home_automation_system.dto.SceneExecutionResultDto;
+import com.shas.smart_home_automation_system.service.SceneService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/scenes")
+@RequiredArgsConstructor
+public class SceneController {
+
+    private final SceneService sceneService;
+
+    @GetMapping("/home/{homeId}")
+    public ResponseEntity<List<SceneDto>> getHomeScenes(@PathVariable Long homeId) {
+        List<SceneDto> scenes = sceneService.getHomeScenes(homeId);
+        return ResponseEntity.ok(scenes);
+    }
+
+    @PostMapping("/{sceneId}/execute")
+    public ResponseEntity<SceneExecutionResultDto> executeScene(@PathVariable Long sceneId) {
+        SceneExecutionResultDto result = sceneService.executeScene(sceneId);
+        return ResponseEntity.ok(result);
+    }
+}
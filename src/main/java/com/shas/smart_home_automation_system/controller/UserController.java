@@ -1,12 +1,13 @@
 package com.shas.smart_home_automation_system.controller;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.UserDto;
 import com.shas.smart_home_automation_system.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/users")
@@ -15,12 +16,24 @@ public class UserController {
 
     private final UserService userService;
 
+    /**
+     * Always paged: the user table is unbounded, so there is no unpaged listing.
+     */
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
+    public ResponseEntity<CursorPageDto<UserDto>> getUsersPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDto<UserDto> users = userService.getUsers(after, limit);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Secured("ROLE_ADMIN")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userService::exportUsers;
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
         UserDto user = userService.getUserById(id);
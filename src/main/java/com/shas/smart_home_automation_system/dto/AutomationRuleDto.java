@@ -0,0 +1,52 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.shas.smart_home_automation_system.enums.AutomationActionType;
+import com.shas.smart_home_automation_system.enums.AutomationTriggerType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DEVICE_STATUS conditions look like {@code {"deviceId": 5, "status": "ONLINE", "from": "OFFLINE"}}
+ * ({@code from} is optional); METRIC_THRESHOLD conditions like
+ * {@code {"deviceId": 5, "metricType": "temperature", "operator": "GT", "value": 28}}. DEVICE_ACTION
+ * configs name target devices by id or device id: {@code {"devices": [7, "light-1"], "action": "TURN_OFF"}}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AutomationRuleDto {
+    private Long id;
+
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    private String description;
+
+    @NotNull
+    private AutomationTriggerType triggerType;
+
+    @NotNull
+    private Map<String, Object> triggerCondition;
+
+    @NotNull
+    private AutomationActionType actionType;
+
+    @NotNull
+    private Map<String, Object> actionConfig;
+
+    private boolean enabled = true;
+
+    @NotNull
+    private Long homeId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeviceStatusRequestDto {
+    public static final int MAX_DEVICES = 500;
+
+    @NotEmpty
+    @Size(max = MAX_DEVICES)
+    private List<@NotNull Long> deviceIds;
+
+    @NotNull
+    private DeviceStatus status;
+}
@@ -0,0 +1,37 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDto<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private Long nextCursor;
+    private int limit;
+
+    public static <T> CursorPageDto<T> of(List<T> items, int limit, Function<T, Long> idExtractor) {
+        Long nextCursor = items.size() == limit ? idExtractor.apply(items.getLast()) : null;
+        return new CursorPageDto<>(items, nextCursor, limit);
+    }
+
+    public static int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static long normalizeCursor(Long after) {
+        return after == null ? 0L : after;
+    }
+}
@@ -0,0 +1,18 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyEnergyDto {
+    private LocalDate date;
+    /**
+     * Energy used by the home's devices while ONLINE, in kWh.
+     */
+    private Double consumption;
+}
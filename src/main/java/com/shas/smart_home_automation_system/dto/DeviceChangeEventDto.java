@@ -0,0 +1,44 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shas.smart_home_automation_system.enums.DeviceChangeType;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Delta pushed to home subscribers. Only CREATED carries the full device; other changes carry just
+ * the fields that changed. GROUP_STATUS_CHANGED carries the group and the ids of the devices whose
+ * status changed instead of a single device id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeviceChangeEventDto {
+    private DeviceChangeType type;
+    private Long homeId;
+    private Long deviceId;
+    private DeviceStatus status;
+    private DeviceDto device;
+    private Long groupId;
+    private List<Long> deviceIds;
+    /**
+     * Epoch milliseconds at which the change was made.
+     */
+    private Long timestamp;
+
+    /**
+     * One DELETED event per device, for devices removed together with their room or home.
+     */
+    public static List<DeviceChangeEventDto> deleted(Long homeId, List<Long> deviceIds) {
+        long timestamp = System.currentTimeMillis();
+        return deviceIds.stream()
+                .map(deviceId -> new DeviceChangeEventDto(DeviceChangeType.DELETED, homeId, deviceId,
+                        null, null, null, null, timestamp))
+                .toList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.shas.smart_home_automation_system.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceGroupDto {
+    public static final int MAX_DEVICES = 1000;
+
+    private Long id;
+
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    private String description;
+
+    @NotNull
+    private Long homeId;
+
+    @Size(max = MAX_DEVICES)
+    private Set<@NotNull Long> deviceIds = new HashSet<>();
+
+    private LocalDateTime createdAt;
+}
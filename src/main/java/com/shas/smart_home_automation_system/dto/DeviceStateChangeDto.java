@@ -0,0 +1,21 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceStateChangeDto {
+    private Long id;
+    private Long deviceId;
+    private DeviceStatus oldStatus;
+    private DeviceStatus newStatus;
+    private Long changedBy;
+    private String reason;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Newest-first page of a device's transitions. Pass {@code nextBefore} and {@code nextBeforeId} back
+ * as {@code before} and {@code beforeId} to fetch the next page; both are null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceStateHistoryPageDto {
+    private List<DeviceStateChangeDto> items;
+    private LocalDateTime nextBefore;
+    private Long nextBeforeId;
+    private int limit;
+
+    public static DeviceStateHistoryPageDto of(List<DeviceStateChangeDto> items, int limit) {
+        if (items.size() < limit) {
+            return new DeviceStateHistoryPageDto(items, null, null, limit);
+        }
+        DeviceStateChangeDto last = items.getLast();
+        return new DeviceStateHistoryPageDto(items, last.getCreatedAt(), last.getId(), limit);
+    }
+}
@@ -0,0 +1,19 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * In-process application event for a user-initiated status change, delivered after commit.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceStatusChangedEvent {
+    private Long homeId;
+    private Long deviceId;
+    private DeviceStatus oldStatus;
+    private DeviceStatus newStatus;
+}
@@ -0,0 +1,19 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * In-process application event for devices deleted on their own or with their room or home,
+ * delivered after commit.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DevicesDeletedEvent {
+    private Long homeId;
+    private List<Long> deviceIds;
+}
@@ -0,0 +1,19 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnergyReportDto {
+    private Long homeId;
+    private LocalDate from;
+    private LocalDate to;
+    private Double totalConsumption;
+    private List<DailyEnergyDto> days;
+}
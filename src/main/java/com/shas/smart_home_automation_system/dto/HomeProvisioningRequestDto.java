@@ -0,0 +1,42 @@
+package com.shas.smart_home_automation_system.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rooms to create together with their devices, plus devices for rooms that already exist in the
+ * home (referenced by {@code roomId}) or that are not assigned to a room.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HomeProvisioningRequestDto {
+    public static final int MAX_ROOMS = 1_000;
+    public static final int MAX_DEVICES = 10_000;
+
+    @NotNull
+    @Size(max = MAX_ROOMS)
+    private List<@Valid @NotNull RoomProvisioningDto> rooms = new ArrayList<>();
+
+    @NotNull
+    private List<@NotNull DeviceDto> devices = new ArrayList<>();
+
+    @AssertTrue(message = "at most " + MAX_DEVICES + " devices can be provisioned at once")
+    public boolean isWithinDeviceLimit() {
+        long total = devices == null ? 0 : devices.size();
+        if (rooms != null) {
+            for (RoomProvisioningDto room : rooms) {
+                total += room == null || room.getDevices() == null ? 0 : room.getDevices().size();
+            }
+        }
+        return total <= MAX_DEVICES;
+    }
+}
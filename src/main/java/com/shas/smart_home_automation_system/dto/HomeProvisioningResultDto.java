@@ -0,0 +1,16 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HomeProvisioningResultDto {
+    private Long homeId;
+    private List<RoomDto> rooms;
+    private List<DeviceDto> devices;
+}
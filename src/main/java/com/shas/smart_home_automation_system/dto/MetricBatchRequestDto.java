@@ -0,0 +1,22 @@
+package com.shas.smart_home_automation_system.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricBatchRequestDto {
+    public static final int MAX_READINGS = 5_000;
+
+    @NotEmpty
+    @Size(max = MAX_READINGS)
+    private List<@Valid @NotNull MetricReadingDto> readings;
+}
@@ -0,0 +1,18 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricBucketDto {
+    private LocalDateTime bucket;
+    private Double min;
+    private Double max;
+    private Double avg;
+    private Long count;
+}
@@ -0,0 +1,14 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricIngestResultDto {
+    private int accepted;
+    private int bufferSize;
+    private int bufferCapacity;
+}
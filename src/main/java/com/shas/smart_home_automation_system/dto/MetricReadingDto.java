@@ -0,0 +1,30 @@
+package com.shas.smart_home_automation_system.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricReadingDto {
+    @NotNull
+    private Long deviceId;
+
+    @NotBlank
+    @Size(max = 50)
+    private String metricType;
+
+    @NotNull
+    private Double value;
+
+    /**
+     * Defaults to the time the reading was received.
+     */
+    private LocalDateTime recordedAt;
+}
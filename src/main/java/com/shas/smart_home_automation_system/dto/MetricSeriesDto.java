@@ -0,0 +1,24 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricSeriesDto {
+    private Long deviceId;
+    private String metricType;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long stepSeconds;
+    /**
+     * Rollup the buckets were built from: 1m, 1h, 1d, or raw.
+     */
+    private String source;
+    private List<MetricBucketDto> buckets;
+}
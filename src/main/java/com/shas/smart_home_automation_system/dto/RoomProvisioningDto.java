@@ -0,0 +1,27 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.shas.smart_home_automation_system.enums.RoomType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomProvisioningDto {
+    @NotBlank
+    private String name;
+
+    private String description;
+
+    @NotNull
+    private RoomType type;
+
+    @NotNull
+    private List<@NotNull DeviceDto> devices = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SceneActionDto {
+    private Long id;
+    private Long deviceId;
+    private String actionType;
+    private Map<String, Object> actionConfig;
+    private Integer executionOrder;
+}
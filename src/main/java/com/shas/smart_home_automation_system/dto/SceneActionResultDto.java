@@ -0,0 +1,22 @@
+package com.shas.smart_home_automation_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.enums.SceneActionOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SceneActionResultDto {
+    private Long actionId;
+    private Long deviceId;
+    private String actionType;
+    private Integer executionOrder;
+    private SceneActionOutcome outcome;
+    private DeviceStatus targetStatus;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SceneDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Boolean enabled;
+    private Long homeId;
+    private List<SceneActionDto> actions;
+    private LocalDateTime createdAt;
+}
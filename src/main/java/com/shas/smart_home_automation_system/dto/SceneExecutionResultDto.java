@@ -0,0 +1,20 @@
+package com.shas.smart_home_automation_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SceneExecutionResultDto {
+    private Long sceneId;
+    private Long homeId;
+    private int stages;
+    private int updatedDevices;
+    private List<SceneActionResultDto> actions;
+    private double writeMs;
+    private double totalMs;
+}
@@ -0,0 +1,59 @@
+package com.shas.smart_home_automation_system.entity;
+
+import com.shas.smart_home_automation_system.enums.AutomationActionType;
+import com.shas.smart_home_automation_system.enums.AutomationTriggerType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Entity
+@Table(name = "automation_rules")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class AutomationRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AutomationTriggerType triggerType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, Object> triggerCondition;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AutomationActionType actionType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, Object> actionConfig;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "home_id", nullable = false)
+    private Home home;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
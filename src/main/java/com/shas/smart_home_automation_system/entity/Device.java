@@ -29,7 +29,8 @@ import java.time.LocalDateTime;
 public class Device {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "devices_id_seq")
+    @SequenceGenerator(name = "devices_id_seq", sequenceName = "devices_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -24,7 +24,8 @@ import java.util.Set;
 public class Home {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "homes_id_seq")
+    @SequenceGenerator(name = "homes_id_seq", sequenceName = "homes_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
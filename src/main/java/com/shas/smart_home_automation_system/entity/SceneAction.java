@@ -0,0 +1,41 @@
+package com.shas.smart_home_automation_system.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Map;
+
+@Entity
+@Table(name = "scene_actions")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class SceneAction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scene_id", nullable = false)
+    private Scene scene;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "device_id", nullable = false)
+    private Device device;
+
+    /**
+     * TURN_ON, TURN_OFF and SET_STATUS are executed; other types (e.g. SET_BRIGHTNESS) are kept but skipped.
+     */
+    @Column(nullable = false)
+    private String actionType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, Object> actionConfig;
+
+    private Integer executionOrder = 0;
+}
@@ -0,0 +1,5 @@
+package com.shas.smart_home_automation_system.enums;
+
+public enum AutomationActionType {
+    DEVICE_ACTION
+}
@@ -0,0 +1,9 @@
+package com.shas.smart_home_automation_system.enums;
+
+public enum AutomationTriggerType {
+    TIME,
+    PRESENCE,
+    SUNSET,
+    DEVICE_STATUS,
+    METRIC_THRESHOLD
+}
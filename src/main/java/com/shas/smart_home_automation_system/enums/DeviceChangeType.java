@@ -0,0 +1,8 @@
+package com.shas.smart_home_automation_system.enums;
+
+public enum DeviceChangeType {
+    CREATED,
+    STATUS_CHANGED,
+    GROUP_STATUS_CHANGED,
+    DELETED
+}
@@ -0,0 +1,39 @@
+package com.shas.smart_home_automation_system.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum MetricResolution {
+    MINUTE("1m", Duration.ofMinutes(1), ChronoUnit.MINUTES, "device_metric_rollups_1m"),
+    HOUR("1h", Duration.ofHours(1), ChronoUnit.HOURS, "device_metric_rollups_1h"),
+    DAY("1d", Duration.ofDays(1), ChronoUnit.DAYS, "device_metric_rollups_1d");
+
+    private final String label;
+    private final Duration bucket;
+    private final ChronoUnit unit;
+    private final String table;
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * The coarsest rollup whose buckets evenly divide the requested step, or null when the step is
+     * finer than a minute and only raw rows can answer it.
+     */
+    public static MetricResolution coarsestFor(Duration step) {
+        MetricResolution chosen = null;
+        for (MetricResolution resolution : values()) {
+            if (step.compareTo(resolution.bucket) >= 0 && step.toMillis() % resolution.bucket.toMillis() == 0) {
+                chosen = resolution;
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,7 @@
+package com.shas.smart_home_automation_system.enums;
+
+public enum SceneActionOutcome {
+    APPLIED,
+    SKIPPED,
+    FAILED
+}
@@ -0,0 +1,13 @@
+package com.shas.smart_home_automation_system.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class BackpressureException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public BackpressureException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.AutomationRuleDto;
+import com.shas.smart_home_automation_system.entity.AutomationRule;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface AutomationRuleMapper {
+
+    @Mapping(target = "homeId", source = "home.id")
+    AutomationRuleDto toDto(AutomationRule rule);
+
+    List<AutomationRuleDto> toDtoList(List<AutomationRule> rules);
+}
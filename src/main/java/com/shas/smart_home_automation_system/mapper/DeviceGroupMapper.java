@@ -0,0 +1,23 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.DeviceGroupDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.DeviceGroup;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface DeviceGroupMapper {
+
+    @Mapping(target = "homeId", source = "home.id")
+    @Mapping(target = "deviceIds", source = "devices")
+    DeviceGroupDto toDto(DeviceGroup group);
+
+    List<DeviceGroupDto> toDtoList(List<DeviceGroup> groups);
+
+    default Long toDeviceId(Device device) {
+        return device.getId();
+    }
+}
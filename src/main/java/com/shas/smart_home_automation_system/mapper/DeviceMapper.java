@@ -0,0 +1,18 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface DeviceMapper {
+
+    @Mapping(target = "homeId", source = "home.id")
+    @Mapping(target = "roomId", source = "room.id")
+    DeviceDto toDto(Device device);
+
+    List<DeviceDto> toDtoList(List<Device> devices);
+}
@@ -0,0 +1,17 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.HomeDto;
+import com.shas.smart_home_automation_system.entity.Home;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface HomeMapper {
+
+    @Mapping(target = "userId", source = "user.id")
+    HomeDto toDto(Home home);
+
+    List<HomeDto> toDtoList(List<Home> homes);
+}
@@ -0,0 +1,17 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.RoomDto;
+import com.shas.smart_home_automation_system.entity.Room;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface RoomMapper {
+
+    @Mapping(target = "homeId", source = "home.id")
+    RoomDto toDto(Room room);
+
+    List<RoomDto> toDtoList(List<Room> rooms);
+}
@@ -0,0 +1,22 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.SceneActionDto;
+import com.shas.smart_home_automation_system.dto.SceneDto;
+import com.shas.smart_home_automation_system.entity.Scene;
+import com.shas.smart_home_automation_system.entity.SceneAction;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface SceneMapper {
+
+    @Mapping(target = "homeId", source = "home.id")
+    SceneDto toDto(Scene scene);
+
+    List<SceneDto> toDtoList(List<Scene> scenes);
+
+    @Mapping(target = "deviceId", source = "device.id")
+    SceneActionDto toDto(SceneAction action);
+}
@@ -0,0 +1,15 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.UserDto;
+import com.shas.smart_home_automation_system.entity.User;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    UserDto toDto(User user);
+
+    List<UserDto> toDtoList(List<User> users);
+}
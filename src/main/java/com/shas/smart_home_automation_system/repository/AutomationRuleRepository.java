@@ -0,0 +1,27 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.entity.AutomationRule;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.AutomationTriggerType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AutomationRuleRepository extends JpaRepository<AutomationRule, Long> {
+
+    @EntityGraph(attributePaths = "home")
+    List<AutomationRule> findByHomeIdAndHomeUserOrderByIdAsc(Long homeId, User user);
+
+    @EntityGraph(attributePaths = "home")
+    Optional<AutomationRule> findByIdAndHomeUser(Long id, User user);
+
+    List<AutomationRule> findByEnabledTrueAndTriggerTypeIn(Collection<AutomationTriggerType> triggerTypes);
+
+    List<AutomationRule> findByHomeIdAndEnabledTrueAndTriggerTypeIn(Long homeId,
+                                                                   Collection<AutomationTriggerType> triggerTypes);
+}
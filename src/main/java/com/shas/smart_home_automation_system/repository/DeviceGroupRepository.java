@@ -0,0 +1,22 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.entity.DeviceGroup;
+import com.shas.smart_home_automation_system.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DeviceGroupRepository extends JpaRepository<DeviceGroup, Long> {
+
+    @EntityGraph(attributePaths = {"home", "devices"})
+    List<DeviceGroup> findByHomeIdAndHomeUserOrderByIdAsc(Long homeId, User user);
+
+    @EntityGraph(attributePaths = {"home", "devices"})
+    Optional<DeviceGroup> findByIdAndHomeUser(Long id, User user);
+
+    boolean existsByIdAndHomeUser(Long id, User user);
+}
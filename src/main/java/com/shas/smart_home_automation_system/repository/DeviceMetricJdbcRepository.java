@@ -0,0 +1,79 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.dto.MetricReadingDto;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk writes to {@code device_metrics}, which is append-only and never loaded as entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceMetricJdbcRepository {
+
+    private static final String COPY_SQL =
+            "COPY device_metrics (device_id, metric_type, metric_value, recorded_at) FROM STDIN WITH (FORMAT csv)";
+    private static final int INSERT_CHUNK_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams the readings with the PostgreSQL COPY protocol. Fails as a whole if any reading
+     * references a device that no longer exists.
+     */
+    public long copy(List<MetricReadingDto> readings) {
+        StringBuilder csv = new StringBuilder(readings.size() * 64);
+        for (MetricReadingDto reading : readings) {
+            csv.append(reading.getDeviceId()).append(',')
+                    .append('"').append(reading.getMetricType().replace("\"", "\"\"")).append('"').append(',')
+                    .append(reading.getValue()).append(',')
+                    .append(reading.getRecordedAt()).append('\n');
+        }
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_SQL, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into device_metrics failed", e);
+            }
+        });
+        return copied != null ? copied : 0;
+    }
+
+    /**
+     * Multi-row INSERT that skips readings for devices deleted since they were accepted.
+     */
+    public long insert(List<MetricReadingDto> readings) {
+        long inserted = 0;
+        for (int from = 0; from < readings.size(); from += INSERT_CHUNK_SIZE) {
+            List<MetricReadingDto> chunk = readings.subList(from, Math.min(from + INSERT_CHUNK_SIZE, readings.size()));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO device_metrics (device_id, metric_type, metric_value, recorded_at) " +
+                    "SELECT v.device_id, v.metric_type, v.metric_value, v.recorded_at FROM (VALUES ");
+            List<Object> args = new ArrayList<>(chunk.size() * 4);
+            for (int i = 0; i < chunk.size(); i++) {
+                MetricReadingDto reading = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(CAST(? AS BIGINT), CAST(? AS VARCHAR(50)), " +
+                        "CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP))");
+                args.add(reading.getDeviceId());
+                args.add(reading.getMetricType());
+                args.add(reading.getValue());
+                args.add(Timestamp.valueOf(reading.getRecordedAt()));
+            }
+            sql.append(") AS v (device_id, metric_type, metric_value, recorded_at) " +
+                    "JOIN devices d ON d.id = v.device_id");
+            inserted += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+        return inserted;
+    }
+}
@@ -4,25 +4,84 @@ import com.shas.smart_home_automation_system.entity.Device;
 import com.shas.smart_home_automation_system.entity.User;
 import com.shas.smart_home_automation_system.enums.DeviceStatus;
 import com.shas.smart_home_automation_system.enums.DeviceType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DeviceRepository extends JpaRepository<Device, Long> {
 
+    @EntityGraph(attributePaths = {"home", "room"})
     List<Device> findByHomeIdAndHomeUser(Long homeId, User user);
 
+    @EntityGraph(attributePaths = {"home", "room"})
     List<Device> findByHomeUser(User user);
 
+    @EntityGraph(attributePaths = "home")
+    Optional<Device> findByIdAndHomeUser(Long id, User user);
+
+    boolean existsByIdAndHomeUser(Long id, User user);
+
+    @EntityGraph(attributePaths = "home")
+    List<Device> findByIdInAndHomeUser(Collection<Long> ids, User user);
+
+    @EntityGraph(attributePaths = "home")
+    List<Device> findByIdInAndHomeId(Collection<Long> ids, Long homeId);
+
+    /**
+     * Members of the group, resolved through the device_group_members primary key in one join.
+     */
+    @Query("SELECT d FROM DeviceGroup g JOIN g.devices d JOIN FETCH d.home h " +
+            "WHERE g.id = :groupId AND h.user = :user")
+    List<Device> findGroupMembers(@Param("groupId") Long groupId, @Param("user") User user);
+
+    /**
+     * (id, home id, device id) of devices referenced either by primary key or by their device id.
+     */
+    @Query("SELECT d.id, d.home.id, d.deviceId FROM Device d WHERE d.id IN :ids OR d.deviceId IN :deviceIds")
+    List<Object[]> findReferences(@Param("ids") Collection<Long> ids, @Param("deviceIds") Collection<String> deviceIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Device d SET d.status = :status, d.updatedAt = :updatedAt, d.version = d.version + 1 " +
+            "WHERE d.id IN :ids AND d.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") DeviceStatus status,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    @EntityGraph(attributePaths = {"home", "room"})
+    List<Device> findByHomeUserAndIdGreaterThanOrderByIdAsc(User user, Long after, Limit limit);
+
+    @EntityGraph(attributePaths = {"home", "room"})
+    List<Device> findByHomeIdAndHomeUserAndIdGreaterThanOrderByIdAsc(Long homeId, User user, Long after, Limit limit);
+
     List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status);
 
     @Query("SELECT SUM(d.powerConsumption) FROM Device d WHERE d.home.id = :homeId AND d.status = 'ONLINE'")
     Optional<Double> getTotalPowerConsumptionByHome(@Param("homeId") Long homeId);
 
+    @Query("SELECT d.id FROM Device d WHERE d.room.id = :roomId")
+    List<Long> findIdsByRoomId(@Param("roomId") Long roomId);
+
+    @Query("SELECT d.id FROM Device d WHERE d.home.id = :homeId")
+    List<Long> findIdsByHomeId(@Param("homeId") Long homeId);
+
+    @Query("SELECT SUM(d.powerConsumption) FROM Device d WHERE d.room.id = :roomId AND d.status = 'ONLINE'")
+    Optional<Double> getTotalPowerConsumptionByRoom(@Param("roomId") Long roomId);
+
+    @Query("SELECT d.home.id, SUM(d.powerConsumption) FROM Device d WHERE d.status = 'ONLINE' GROUP BY d.home.id")
+    List<Object[]> getTotalPowerConsumptionPerHome();
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('power_totals'))", nativeQuery = true)
+    boolean tryLockPowerTotals();
+
     Optional<Device> findByDeviceId(String deviceId);
 }
\ No newline at end of file
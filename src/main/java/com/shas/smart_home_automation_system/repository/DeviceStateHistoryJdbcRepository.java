@@ -0,0 +1,94 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.dto.DeviceStateChangeDto;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only writes and keyset reads of {@code device_state_history}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceStateHistoryJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO device_state_history " +
+            "(device_id, old_status, new_status, changed_by, reason, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_EXISTING_SQL = "INSERT INTO device_state_history " +
+            "(device_id, old_status, new_status, changed_by, reason, created_at) " +
+            "SELECT ?, ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM devices WHERE id = ?)";
+    private static final String SELECT_SQL = "SELECT id, device_id, old_status, new_status, changed_by, reason, " +
+            "created_at FROM device_state_history WHERE device_id = ? ";
+
+    private static final RowMapper<DeviceStateChangeDto> ROW_MAPPER = (rs, rowNum) -> new DeviceStateChangeDto(
+            rs.getLong("id"),
+            rs.getLong("device_id"),
+            rs.getString("old_status") != null ? DeviceStatus.valueOf(rs.getString("old_status")) : null,
+            DeviceStatus.valueOf(rs.getString("new_status")),
+            rs.getObject("changed_by", Long.class),
+            rs.getString("reason"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One JDBC batch, rewritten into multi-row INSERTs by the driver. Fails as a whole if any change
+     * references a device that no longer exists.
+     */
+    public long insert(List<DeviceStateChangeDto> changes) {
+        // rewritten batches report SUCCESS_NO_INFO per row, so count what was sent
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), DeviceStateHistoryJdbcRepository::bind);
+        return changes.size();
+    }
+
+    /**
+     * Batch that skips changes for devices deleted since they were recorded.
+     */
+    public long insertExisting(List<DeviceStateChangeDto> changes) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_EXISTING_SQL, changes, changes.size(), (ps, change) -> {
+            bind(ps, change);
+            ps.setLong(7, change.getDeviceId());
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(count -> count > 0).count();
+    }
+
+    /**
+     * Newest first, strictly older than ({@code before}, {@code beforeId}) when a cursor is given.
+     */
+    public List<DeviceStateChangeDto> findPage(Long deviceId, LocalDateTime before, Long beforeId, int limit) {
+        if (before == null) {
+            return jdbcTemplate.query(SELECT_SQL + "ORDER BY created_at DESC, id DESC LIMIT ?", ROW_MAPPER,
+                    deviceId, limit);
+        }
+        Timestamp cursor = Timestamp.valueOf(before);
+        if (beforeId == null) {
+            return jdbcTemplate.query(SELECT_SQL + "AND created_at < ? ORDER BY created_at DESC, id DESC LIMIT ?",
+                    ROW_MAPPER, deviceId, cursor, limit);
+        }
+        return jdbcTemplate.query(SELECT_SQL + "AND created_at <= ? AND (created_at < ? OR id < ?) " +
+                "ORDER BY created_at DESC, id DESC LIMIT ?", ROW_MAPPER, deviceId, cursor, cursor, beforeId, limit);
+    }
+
+    private static void bind(PreparedStatement ps, DeviceStateChangeDto change) throws SQLException {
+        ps.setLong(1, change.getDeviceId());
+        ps.setString(2, change.getOldStatus() != null ? change.getOldStatus().name() : null);
+        ps.setString(3, change.getNewStatus().name());
+        if (change.getChangedBy() != null) {
+            ps.setLong(4, change.getChangedBy());
+        } else {
+            ps.setNull(4, Types.BIGINT);
+        }
+        ps.setString(5, change.getReason());
+        ps.setTimestamp(6, Timestamp.valueOf(change.getCreatedAt()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.dto.DailyEnergyDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes {@code energy_consumption} from device state history and reads the
+ * {@code daily_energy_consumption} materialized view built on top of it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnergyConsumptionJdbcRepository {
+
+    // Each device is ONLINE between a transition to ONLINE and its next transition; the state at the
+    // start of the range comes from the last transition before it. Intervals are split at midnight and
+    // weighted by the device's power draw (W) to get kWh per home and day.
+    private static final String UPSERT_DAILY_TOTALS = """
+            WITH bounds AS (
+                SELECT CAST(? AS TIMESTAMP) AS lo, CAST(? AS TIMESTAMP) AS hi, CAST(? AS TIMESTAMP) AS until
+            ),
+            changes AS (
+                SELECT h.device_id, h.new_status, h.created_at AS changed_at, h.id
+                FROM device_state_history h, bounds b
+                WHERE h.created_at >= b.lo AND h.created_at < b.hi
+                UNION ALL
+                SELECT d.id, last_change.new_status, b.lo, last_change.id
+                FROM bounds b
+                CROSS JOIN devices d
+                CROSS JOIN LATERAL (
+                    SELECT h.new_status, h.id
+                    FROM device_state_history h
+                    WHERE h.device_id = d.id AND h.created_at < b.lo
+                    ORDER BY h.created_at DESC, h.id DESC
+                    LIMIT 1
+                ) last_change
+            ),
+            intervals AS (
+                SELECT c.device_id, c.new_status, c.changed_at AS started_at,
+                       COALESCE(LEAD(c.changed_at) OVER (PARTITION BY c.device_id ORDER BY c.changed_at, c.id),
+                                b.until) AS ended_at
+                FROM changes c, bounds b
+            ),
+            online_usage AS (
+                SELECT dv.home_id, s.day,
+                       SUM(dv.power_consumption * EXTRACT(EPOCH FROM
+                           (LEAST(i.ended_at, s.day + INTERVAL '1 day') - GREATEST(i.started_at, s.day))) / 3600000.0) AS kwh
+                FROM intervals i
+                JOIN devices dv ON dv.id = i.device_id
+                CROSS JOIN bounds b
+                JOIN generate_series(b.lo, b.hi - INTERVAL '1 day', INTERVAL '1 day') AS s(day)
+                    ON s.day < i.ended_at AND s.day + INTERVAL '1 day' > i.started_at
+                WHERE i.new_status = 'ONLINE' AND dv.power_consumption > 0
+                GROUP BY dv.home_id, s.day
+            )
+            INSERT INTO energy_consumption (home_id, total_consumption, consumption_date)
+            SELECT h.id, COALESCE(u.kwh, 0), CAST(s.day AS DATE)
+            FROM homes h
+            CROSS JOIN bounds b
+            CROSS JOIN generate_series(b.lo, b.hi - INTERVAL '1 day', INTERVAL '1 day') AS s(day)
+            LEFT JOIN online_usage u ON u.home_id = h.id AND u.day = s.day
+            WHERE s.day < b.until
+            ON CONFLICT (home_id, consumption_date) DO UPDATE SET total_consumption = EXCLUDED.total_consumption
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recomputes every home's totals for the days in [from, to) up to {@code until}. Returns -1 without
+     * doing anything while another node is running the same job.
+     */
+    @Transactional
+    public int upsertDailyTotals(LocalDate from, LocalDate to, LocalDateTime until) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class,
+                "energy_consumption");
+        if (!Boolean.TRUE.equals(locked)) {
+            return -1;
+        }
+        return jdbcTemplate.update(UPSERT_DAILY_TOTALS, Timestamp.valueOf(from.atStartOfDay()),
+                Timestamp.valueOf(to.atStartOfDay()), Timestamp.valueOf(until));
+    }
+
+    public void refreshDailyView() {
+        jdbcTemplate.execute("SELECT refresh_daily_energy_consumption()");
+    }
+
+    public List<DailyEnergyDto> findDaily(Long homeId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT consumption_date, total_consumption FROM daily_energy_consumption " +
+                        "WHERE home_id = ? AND consumption_date BETWEEN ? AND ? ORDER BY consumption_date",
+                (rs, rowNum) -> new DailyEnergyDto(rs.getDate(1).toLocalDate(), rs.getDouble(2)),
+                homeId, Date.valueOf(from), Date.valueOf(to));
+    }
+}
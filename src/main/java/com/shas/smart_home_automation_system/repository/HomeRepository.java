@@ -2,6 +2,7 @@ package com.shas.smart_home_automation_system.repository;
 
 import com.shas.smart_home_automation_system.entity.Home;
 import com.shas.smart_home_automation_system.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,5 +14,9 @@ public interface HomeRepository extends JpaRepository<Home, Long> {
 
     List<Home> findByUser(User user);
 
+    List<Home> findByUserAndIdGreaterThanOrderByIdAsc(User user, Long after, Limit limit);
+
     Optional<Home> findByIdAndUser(Long id, User user);
+
+    boolean existsByIdAndUser(Long id, User user);
 }
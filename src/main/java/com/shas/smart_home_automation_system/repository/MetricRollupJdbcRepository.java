@@ -0,0 +1,131 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.dto.MetricBucketDto;
+import com.shas.smart_home_automation_system.enums.MetricResolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains and reads the {@code device_metric_rollups_*} tables created in V9.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MetricRollupJdbcRepository {
+
+    private static final String UPSERT_SUFFIX = " ON CONFLICT (device_id, metric_type, bucket) DO UPDATE SET " +
+            "min_value = EXCLUDED.min_value, max_value = EXCLUDED.max_value, " +
+            "sum_value = EXCLUDED.sum_value, sample_count = EXCLUDED.sample_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<MetricResolution, LocalDateTime> watermarks() {
+        Map<MetricResolution, LocalDateTime> watermarks = new EnumMap<>(MetricResolution.class);
+        jdbcTemplate.query("SELECT resolution, rolled_up_to FROM metric_rollup_watermarks", rs -> {
+            for (MetricResolution resolution : MetricResolution.values()) {
+                if (resolution.getLabel().equals(rs.getString(1))) {
+                    watermarks.put(resolution, rs.getTimestamp(2).toLocalDateTime());
+                }
+            }
+        });
+        return watermarks;
+    }
+
+    /**
+     * Earliest bucket start a resolution could be built from, or null when its source is empty.
+     */
+    public LocalDateTime earliestSource(MetricResolution resolution) {
+        String sql = resolution == MetricResolution.MINUTE
+                ? "SELECT MIN(recorded_at) FROM device_metrics"
+                : "SELECT MIN(bucket) FROM " + finer(resolution).getTable();
+        Timestamp earliest = jdbcTemplate.queryForObject(sql, Timestamp.class);
+        return earliest != null ? resolution.truncate(earliest.toLocalDateTime()) : null;
+    }
+
+    /**
+     * Recomputes every bucket of the resolution in [from, to) from the next finer level and moves its
+     * watermark to {@code to}. Returns false without doing anything while another node is rolling up
+     * the same resolution.
+     */
+    @Transactional
+    public boolean rollUp(MetricResolution resolution, LocalDateTime from, LocalDateTime to) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class,
+                "metric_rollup_" + resolution.getLabel());
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+        String unit = resolution.getUnit().name().toLowerCase().replaceAll("s$", "");
+        String select = resolution == MetricResolution.MINUTE
+                ? "SELECT device_id, metric_type, date_trunc('minute', recorded_at), MIN(metric_value), " +
+                  "MAX(metric_value), SUM(metric_value), COUNT(*) FROM device_metrics " +
+                  "WHERE recorded_at >= ? AND recorded_at < ? GROUP BY 1, 2, 3"
+                : "SELECT device_id, metric_type, date_trunc('" + unit + "', bucket), MIN(min_value), " +
+                  "MAX(max_value), SUM(sum_value), SUM(sample_count) FROM " + finer(resolution).getTable() +
+                  " WHERE bucket >= ? AND bucket < ? GROUP BY 1, 2, 3";
+        jdbcTemplate.update("INSERT INTO " + resolution.getTable() +
+                " (device_id, metric_type, bucket, min_value, max_value, sum_value, sample_count) " + select + UPSERT_SUFFIX,
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.update("INSERT INTO metric_rollup_watermarks (resolution, rolled_up_to) VALUES (?, ?) " +
+                "ON CONFLICT (resolution) DO UPDATE SET rolled_up_to = EXCLUDED.rolled_up_to",
+                resolution.getLabel(), Timestamp.valueOf(to));
+        return true;
+    }
+
+    /**
+     * Buckets of {@code step} starting at {@code from}. Each time range is read from exactly one source:
+     * the coarsest rollup up to its watermark, then progressively finer rollups, and raw rows only after
+     * the minute watermark.
+     */
+    public List<MetricBucketDto> series(Long deviceId, String metricType, LocalDateTime from, LocalDateTime to,
+                                        Duration step, MetricResolution coarsest,
+                                        Map<MetricResolution, LocalDateTime> watermarks) {
+        List<String> sources = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        args.add(step.toSeconds() + " seconds");
+        args.add(Timestamp.valueOf(from));
+
+        LocalDateTime cursor = from;
+        if (coarsest != null) {
+            for (int i = coarsest.ordinal(); i >= 0; i--) {
+                MetricResolution resolution = MetricResolution.values()[i];
+                LocalDateTime watermark = watermarks.get(resolution);
+                if (watermark == null) {
+                    continue;
+                }
+                LocalDateTime end = watermark.isBefore(to) ? watermark : to;
+                if (end.isAfter(cursor)) {
+                    sources.add("SELECT bucket, min_value, max_value, sum_value, sample_count FROM " + resolution.getTable() +
+                            " WHERE device_id = ? AND metric_type = ? AND bucket >= ? AND bucket < ?");
+                    args.addAll(List.of(deviceId, metricType, Timestamp.valueOf(cursor), Timestamp.valueOf(end)));
+                    cursor = end;
+                }
+            }
+        }
+        if (to.isAfter(cursor)) {
+            sources.add("SELECT recorded_at, metric_value, metric_value, metric_value, 1 FROM device_metrics" +
+                    " WHERE device_id = ? AND metric_type = ? AND recorded_at >= ? AND recorded_at < ?");
+            args.addAll(List.of(deviceId, metricType, Timestamp.valueOf(cursor), Timestamp.valueOf(to)));
+        }
+
+        String sql = "SELECT date_bin(CAST(? AS INTERVAL), s.bucket, CAST(? AS TIMESTAMP)) AS b, " +
+                "MIN(s.min_value), MAX(s.max_value), SUM(s.sum_value) / SUM(s.sample_count), SUM(s.sample_count) " +
+                "FROM (" + String.join(" UNION ALL ", sources) + ") " +
+                "AS s (bucket, min_value, max_value, sum_value, sample_count) GROUP BY b ORDER BY b";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new MetricBucketDto(
+                rs.getTimestamp(1).toLocalDateTime(), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getLong(5)),
+                args.toArray());
+    }
+
+    private static MetricResolution finer(MetricResolution resolution) {
+        return MetricResolution.values()[resolution.ordinal() - 1];
+    }
+}
@@ -2,6 +2,8 @@ package com.shas.smart_home_automation_system.repository;
 
 import com.shas.smart_home_automation_system.entity.Room;
 import com.shas.smart_home_automation_system.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,9 +13,18 @@ import java.util.Optional;
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
+    @EntityGraph(attributePaths = "home")
     List<Room> findByHomeIdAndHomeUser(Long homeId, User user);
 
+    @EntityGraph(attributePaths = "home")
     Optional<Room> findByIdAndHomeUser(Long id, User user);
 
+    @EntityGraph(attributePaths = "home")
     List<Room> findByHomeUser(User user);
+
+    @EntityGraph(attributePaths = "home")
+    List<Room> findByHomeUserAndIdGreaterThanOrderByIdAsc(User user, Long after, Limit limit);
+
+    @EntityGraph(attributePaths = "home")
+    List<Room> findByHomeIdAndHomeUserAndIdGreaterThanOrderByIdAsc(Long homeId, User user, Long after, Limit limit);
 }
@@ -0,0 +1,26 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.entity.Scene;
+import com.shas.smart_home_automation_system.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SceneRepository extends JpaRepository<Scene, Long> {
+
+    @EntityGraph(attributePaths = {"home", "actions", "actions.device"})
+    List<Scene> findByHomeIdAndHomeUserOrderByIdAsc(Long homeId, User user);
+
+    /**
+     * The scene with its home, actions and their devices, in one query.
+     */
+    @Query("SELECT s FROM Scene s JOIN FETCH s.home h LEFT JOIN FETCH s.actions a LEFT JOIN FETCH a.device " +
+            "WHERE s.id = :id AND h.user = :user")
+    Optional<Scene> findWithActionsByIdAndHomeUser(@Param("id") Long id, @Param("user") User user);
+}
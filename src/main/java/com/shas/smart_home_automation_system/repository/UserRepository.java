@@ -1,9 +1,11 @@
 package com.shas.smart_home_automation_system.repository;
 
 import com.shas.smart_home_automation_system.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,5 +18,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
 }
 
@@ -2,11 +2,13 @@ package com.shas.smart_home_automation_system.security;
 
 import com.shas.smart_home_automation_system.entity.User;
 import com.shas.smart_home_automation_system.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -22,14 +24,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserService userService;
     private final HandlerExceptionResolver handlerExceptionResolver;
+    private final boolean claimsPrincipal;
 
     public JwtAuthFilter(
             JwtService jwtService,
             UserService userService,
-            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${app.jwt.claims-principal:true}") boolean claimsPrincipal) {
         this.jwtService = jwtService;
         this.userService = userService;
         this.handlerExceptionResolver = handlerExceptionResolver;
+        this.claimsPrincipal = claimsPrincipal;
     }
 
     @Override
@@ -42,10 +47,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             }
 
             String token = requestTokenHeader.split("Bearer ")[1];
-            Long userId = jwtService.getUserId(token);
+            Claims claims = jwtService.getClaims(token);
+            Long userId = Long.valueOf(claims.getSubject());
 
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                User user = userService.getUserFromId(userId);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                User user = claimsPrincipal ? jwtService.getPrincipal(claims) : null;
+                if (user == null) {
+                    user = userService.getUserFromId(userId);
+                }
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
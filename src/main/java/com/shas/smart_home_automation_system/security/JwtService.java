@@ -1,51 +1,102 @@
 package com.shas.smart_home_automation_system.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.shas.smart_home_automation_system.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
+    private static final String EMAIL_CLAIM = "email";
+    private static final String USERNAME_CLAIM = "username";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt.secret}")
     private String secretKey;
 
-    private SecretKey getSecretKey() {
+    @Value("${app.jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
         if (secretKey == null || secretKey.length() < 32) {
-            assert secretKey != null;
-            throw new IllegalArgumentException("Secret key must be at least 32 characters long for HS256:"+secretKey.length()+secretKey);
+            throw new IllegalArgumentException("Secret key must be at least 32 characters long for HS256");
         }
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    private SecretKey getSecretKey() {
+        return signingKey;
     }
 
 
     public String generateAccessKey(User user) {
         return Jwts.builder()
                 .subject(String.valueOf(user.getId()))
-                .claim("email",user.getEmail())
+                .claim(EMAIL_CLAIM,user.getEmail())
+                .claim(USERNAME_CLAIM,user.getUsername())
                 .claim("role",user.getRoles().toString())
+                .claim(ROLES_CLAIM,List.copyOf(user.getRoles()))
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis()+1000*60*10))
                 .signWith(getSecretKey())
                 .compact();
     }
 
+    public Claims getClaims(String token){
+        String tokenHash = hash(token);
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null && (cached.getExpiration() == null || cached.getExpiration().after(new Date()))) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(tokenHash, claims);
+        return claims;
+    }
+
     public Long getUserId(String token){
-        Claims claims = Jwts
-                .parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return Long.valueOf(getClaims(token).getSubject());
+    }
 
-        return Long.valueOf(claims.getSubject());
+    public User getPrincipal(Claims claims){
+        String username = claims.get(USERNAME_CLAIM, String.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (username == null || roles == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(Long.valueOf(claims.getSubject()));
+        user.setUsername(username);
+        user.setEmail(claims.get(EMAIL_CLAIM, String.class));
+        user.setRoles(new HashSet<>(roles.stream().map(Object::toString).toList()));
+        return user;
     }
 
     public String generateRefreshJwtToken(User user) {
@@ -57,4 +108,35 @@ public class JwtService {
                 .signWith(getSecretKey())
                 .compact();
     }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.AutomationRuleDto;
+
+import java.util.List;
+
+public interface AutomationRuleService {
+
+    List<AutomationRuleDto> getHomeRules(Long homeId);
+
+    AutomationRuleDto createRule(AutomationRuleDto ruleDto);
+
+    AutomationRuleDto updateRule(Long ruleId, AutomationRuleDto ruleDto);
+
+    void deleteRule(Long ruleId);
+}
@@ -0,0 +1,13 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.DeviceChangeEventDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+public interface DeviceEventService {
+
+    SseEmitter subscribe(Long homeId);
+
+    void publish(List<DeviceChangeEventDto> events);
+}
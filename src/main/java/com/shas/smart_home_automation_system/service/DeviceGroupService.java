@@ -0,0 +1,22 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.DeviceGroupDto;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+
+import java.util.List;
+
+public interface DeviceGroupService {
+
+    List<DeviceGroupDto> getHomeGroups(Long homeId);
+
+    DeviceGroupDto getGroupById(Long groupId);
+
+    DeviceGroupDto createGroup(DeviceGroupDto groupDto);
+
+    DeviceGroupDto updateGroup(Long groupId, DeviceGroupDto groupDto);
+
+    void deleteGroup(Long groupId);
+
+    List<DeviceDto> updateGroupStatus(Long groupId, DeviceStatus status);
+}
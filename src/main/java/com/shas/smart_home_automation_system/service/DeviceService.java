@@ -1,9 +1,12 @@
 package com.shas.smart_home_automation_system.service;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.DeviceDto;
 import com.shas.smart_home_automation_system.enums.DeviceStatus;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface DeviceService {
 
@@ -11,10 +14,32 @@ public interface DeviceService {
 
     List<DeviceDto> getHomeDevices(Long homeId);
 
+    CursorPageDto<DeviceDto> getUserDevices(Long after, Integer limit);
+
+    CursorPageDto<DeviceDto> getHomeDevices(Long homeId, Long after, Integer limit);
+
     DeviceDto createDevice(DeviceDto deviceDto);
 
     DeviceDto updateDeviceStatus(Long deviceId, DeviceStatus status);
 
+    List<DeviceDto> updateDeviceStatuses(Collection<Long> deviceIds, DeviceStatus status);
+
+    /**
+     * Status change made on behalf of the home's owner by automation, without an authenticated user.
+     * Devices outside the home are ignored, and the change does not trigger further automation rules.
+     */
+    List<DeviceDto> applyAutomationStatus(Long homeId, Collection<Long> deviceIds, DeviceStatus status, String reason);
+
+    /**
+     * Sets each device to its own target status; all rows are written in one JDBC batch.
+     */
+    List<DeviceDto> updateDeviceStatuses(Map<Long, DeviceStatus> statuses, String reason);
+
+    /**
+     * Sets every member of the group with one set-based UPDATE and publishes a single group event.
+     */
+    List<DeviceDto> updateGroupStatus(Long groupId, DeviceStatus status);
+
     void deleteDevice(Long deviceId);
 
     Double getHomePowerConsumption(Long homeId);
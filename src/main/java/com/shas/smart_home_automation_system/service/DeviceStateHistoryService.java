@@ -0,0 +1,16 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.DeviceStateChangeDto;
+import com.shas.smart_home_automation_system.dto.DeviceStateHistoryPageDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DeviceStateHistoryService {
+
+    void record(List<DeviceStateChangeDto> changes);
+
+    void flush();
+
+    DeviceStateHistoryPageDto getHistory(Long deviceId, LocalDateTime before, Long beforeId, Integer limit);
+}
@@ -0,0 +1,12 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.EnergyReportDto;
+
+import java.time.LocalDate;
+
+public interface EnergyConsumptionService {
+
+    void refreshEnergyConsumption();
+
+    EnergyReportDto getEnergyReport(Long homeId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,9 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.HomeProvisioningRequestDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningResultDto;
+
+public interface HomeProvisioningService {
+
+    HomeProvisioningResultDto provisionHome(Long homeId, HomeProvisioningRequestDto request);
+}
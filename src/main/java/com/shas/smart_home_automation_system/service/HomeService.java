@@ -1,5 +1,6 @@
 package com.shas.smart_home_automation_system.service;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.HomeDto;
 
 import java.util.List;
@@ -8,6 +9,8 @@ public interface HomeService {
 
     List<HomeDto> getUserHomes();
 
+    CursorPageDto<HomeDto> getUserHomes(Long after, Integer limit);
+
     HomeDto getHomeById(Long homeId);
 
     HomeDto createHome(HomeDto homeDto);
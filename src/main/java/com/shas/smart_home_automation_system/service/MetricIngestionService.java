@@ -0,0 +1,13 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.MetricIngestResultDto;
+import com.shas.smart_home_automation_system.dto.MetricReadingDto;
+
+import java.util.List;
+
+public interface MetricIngestionService {
+
+    MetricIngestResultDto ingest(List<MetricReadingDto> readings);
+
+    void flush();
+}
@@ -0,0 +1,18 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.MetricSeriesDto;
+
+import java.time.LocalDateTime;
+
+public interface MetricRollupService {
+
+    void refreshRollups();
+
+    /**
+     * Readings recorded before this instant would never reach the rollups, or null while no minute
+     * rollup exists yet.
+     */
+    LocalDateTime earliestRollupReading();
+
+    MetricSeriesDto getSeries(Long deviceId, String metricType, LocalDateTime from, LocalDateTime to, String resolution);
+}
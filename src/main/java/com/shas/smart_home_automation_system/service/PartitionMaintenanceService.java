@@ -0,0 +1,6 @@
+package com.shas.smart_home_automation_system.service;
+
+public interface PartitionMaintenanceService {
+
+    void maintainPartitions();
+}
@@ -0,0 +1,12 @@
+package com.shas.smart_home_automation_system.service;
+
+public interface PowerConsumptionService {
+
+    Double getHomeTotal(Long homeId);
+
+    void applyDelta(Long homeId, double delta);
+
+    void removeHome(Long homeId);
+
+    void reconcile();
+}
@@ -1,5 +1,6 @@
 package com.shas.smart_home_automation_system.service;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.RoomDto;
 
 import java.util.List;
@@ -10,6 +11,10 @@ public interface RoomService {
 
     List<RoomDto> getHomeRooms(Long homeId);
 
+    CursorPageDto<RoomDto> getUserRooms(Long after, Integer limit);
+
+    CursorPageDto<RoomDto> getHomeRooms(Long homeId, Long after, Integer limit);
+
     RoomDto getRoomById(Long roomId);
 
     RoomDto createRoom(RoomDto roomDto);
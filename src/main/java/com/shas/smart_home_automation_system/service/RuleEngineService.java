@@ -0,0 +1,30 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.AutomationRuleDto;
+import com.shas.smart_home_automation_system.dto.DeviceStatusChangedEvent;
+import com.shas.smart_home_automation_system.dto.DevicesDeletedEvent;
+import com.shas.smart_home_automation_system.dto.MetricReadingDto;
+
+import java.util.List;
+
+public interface RuleEngineService {
+
+    void onStatusChanged(DeviceStatusChangedEvent event);
+
+    void onMetricReadings(List<MetricReadingDto> readings);
+
+    /**
+     * Reloads the home's rules so rules that reference the deleted devices are dropped.
+     */
+    void onDevicesDeleted(DevicesDeletedEvent event);
+
+    /**
+     * Rebuilds the home's index on this node and every peer once the current transaction commits.
+     */
+    void reloadHome(Long homeId);
+
+    /**
+     * @throws IllegalArgumentException if an event-driven rule's condition or action cannot be compiled
+     */
+    void validate(AutomationRuleDto rule);
+}
@@ -0,0 +1,13 @@
+package com.shas.smart_home_automation_system.service;
+
+import com.shas.smart_home_automation_system.dto.SceneDto;
+import com.shas.smart_home_automation_system.dto.SceneExecutionResultDto;
+
+import java.util.List;
+
+public interface SceneService {
+
+    List<SceneDto> getHomeScenes(Long homeId);
+
+    SceneExecutionResultDto executeScene(Long sceneId);
+}
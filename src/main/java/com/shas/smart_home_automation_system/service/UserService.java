@@ -1,16 +1,20 @@
 package com.shas.smart_home_automation_system.service;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.UserDto;
 import com.shas.smart_home_automation_system.entity.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface UserService extends UserDetailsService {
 
     User getUserFromId(Long userId);
 
-    List<UserDto> getAllUsers();
+    CursorPageDto<UserDto> getUsers(Long after, Integer limit);
+
+    void exportUsers(OutputStream outputStream) throws IOException;
 
     UserDto getUserById(Long id);
 
@@ -8,6 +8,8 @@ import com.shas.smart_home_automation_system.repository.UserRepository;
 import com.shas.smart_home_automation_system.security.JwtService;
 import com.shas.smart_home_automation_system.service.AuthService;
 import com.shas.smart_home_automation_system.service.UserService;
+import com.shas.smart_home_automation_system.util.CacheService;
+import com.shas.smart_home_automation_system.util.CacheTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +33,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final UserService userService;
+    private final CacheService cacheService;
 
     @Override
     @Transactional(readOnly = true)
@@ -70,6 +73,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public JwtResponseDto registerUser(@Valid RegisterRequestDto registerRequest) {
         String username = registerRequest.getUsername();
         log.info("Registering new user: {}", username);
@@ -95,6 +99,7 @@ public class AuthServiceImpl implements AuthService {
             user.getRoles().add("ROLE_USER");
 
             userRepository.save(user);
+            cacheService.evictTags(CacheTags.userPages());
             log.info("User '{}' registered successfully", username);
 
             LoginRequestDto loginRequest = new LoginRequestDto();
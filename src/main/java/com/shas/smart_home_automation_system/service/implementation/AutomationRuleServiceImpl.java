@@ -0,0 +1,116 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.AutomationRuleDto;
+import com.shas.smart_home_automation_system.entity.AutomationRule;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.AutomationRuleMapper;
+import com.shas.smart_home_automation_system.repository.AutomationRuleRepository;
+import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.service.AutomationRuleService;
+import com.shas.smart_home_automation_system.service.RuleEngineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutomationRuleServiceImpl implements AutomationRuleService {
+
+    private final AutomationRuleRepository ruleRepository;
+    private final HomeRepository homeRepository;
+    private final RuleEngineService ruleEngineService;
+    private final AutomationRuleMapper ruleMapper;
+
+    private User getAuthenticatedUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AutomationRuleDto> getHomeRules(Long homeId) {
+        User user = getAuthenticatedUser();
+        log.info("Fetching automation rules of home {} for user {}", homeId, user.getId());
+        findHome(homeId, user);
+        return ruleMapper.toDtoList(ruleRepository.findByHomeIdAndHomeUserOrderByIdAsc(homeId, user));
+    }
+
+    @Override
+    @Transactional
+    public AutomationRuleDto createRule(AutomationRuleDto ruleDto) {
+        User user = getAuthenticatedUser();
+        log.info("Creating automation rule for home {} and user {}", ruleDto.getHomeId(), user.getId());
+        Home home = findHome(ruleDto.getHomeId(), user);
+        ruleEngineService.validate(ruleDto);
+
+        AutomationRule rule = new AutomationRule();
+        rule.setHome(home);
+        apply(rule, ruleDto);
+        AutomationRule savedRule = ruleRepository.save(rule);
+
+        ruleEngineService.reloadHome(home.getId());
+        return ruleMapper.toDto(savedRule);
+    }
+
+    @Override
+    @Transactional
+    public AutomationRuleDto updateRule(Long ruleId, AutomationRuleDto ruleDto) {
+        User user = getAuthenticatedUser();
+        log.info("Updating automation rule {} for user {}", ruleId, user.getId());
+        AutomationRule rule = findRule(ruleId, user);
+        Long previousHomeId = rule.getHome().getId();
+        if (!Objects.equals(previousHomeId, ruleDto.getHomeId())) {
+            rule.setHome(findHome(ruleDto.getHomeId(), user));
+        }
+        ruleDto.setId(ruleId);
+        ruleEngineService.validate(ruleDto);
+
+        apply(rule, ruleDto);
+        AutomationRule savedRule = ruleRepository.save(rule);
+
+        ruleEngineService.reloadHome(savedRule.getHome().getId());
+        if (!Objects.equals(previousHomeId, savedRule.getHome().getId())) {
+            ruleEngineService.reloadHome(previousHomeId);
+        }
+        return ruleMapper.toDto(savedRule);
+    }
+
+    @Override
+    @Transactional
+    public void deleteRule(Long ruleId) {
+        User user = getAuthenticatedUser();
+        log.info("Deleting automation rule {} for user {}", ruleId, user.getId());
+        AutomationRule rule = findRule(ruleId, user);
+        Long homeId = rule.getHome().getId();
+
+        ruleRepository.delete(rule);
+        ruleEngineService.reloadHome(homeId);
+    }
+
+    private Home findHome(Long homeId, User user) {
+        return homeRepository.findByIdAndUser(homeId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Home not found with id: " + homeId));
+    }
+
+    private AutomationRule findRule(Long ruleId, User user) {
+        return ruleRepository.findByIdAndHomeUser(ruleId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Automation rule not found with id: " + ruleId));
+    }
+
+    private static void apply(AutomationRule rule, AutomationRuleDto ruleDto) {
+        rule.setName(ruleDto.getName());
+        rule.setDescription(ruleDto.getDescription());
+        rule.setTriggerType(ruleDto.getTriggerType());
+        rule.setTriggerCondition(ruleDto.getTriggerCondition());
+        rule.setActionType(ruleDto.getActionType());
+        rule.setActionConfig(ruleDto.getActionConfig());
+        rule.setEnabled(ruleDto.isEnabled());
+    }
+}
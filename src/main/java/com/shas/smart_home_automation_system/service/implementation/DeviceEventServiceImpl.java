@@ -0,0 +1,232 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shas.smart_home_automation_system.dto.DeviceChangeEventDto;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.service.DeviceEventService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes device deltas to SSE subscribers of a home. Changes are published to one Redis channel after
+ * the transaction commits, and every node relays them to its own subscribers, so a client sees changes
+ * made through any replica. Idle subscriptions hold no thread: the servlet request is async, and each
+ * subscriber has its own queue, drained in order on a virtual thread, so a slow client stalls neither
+ * the Redis listener nor other clients and never sees two deltas out of order.
+ */
+@Slf4j
+@Service
+public class DeviceEventServiceImpl implements DeviceEventService, MessageListener {
+
+    public static final String EVENTS_CHANNEL = "smarthome:device:events";
+
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final HomeRepository homeRepository;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DeviceEventServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  HomeRepository homeRepository,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.devices.events.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.homeRepository = homeRepository;
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        Gauge.builder("smarthome.devices.events.subscribers", subscribers,
+                        homes -> homes.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void listen() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVENTS_CHANNEL));
+    }
+
+    @PreDestroy
+    void stop() {
+        deliveryExecutor.shutdownNow();
+        subscribers.values().forEach(homeSubscribers -> homeSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    @Override
+    public SseEmitter subscribe(Long homeId) {
+        // checked against the repository: HomeService publishes through this service
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!homeRepository.existsByIdAndUser(homeId, user)) {
+            throw new ResourceNotFoundException("Home not found with id: " + homeId);
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(homeId, emitter);
+        // add inside compute so a concurrent unsubscribe cannot drop the set this subscriber joins
+        subscribers.compute(homeId, (id, homeSubscribers) -> {
+            Set<Subscriber> joined = homeSubscribers != null ? homeSubscribers : ConcurrentHashMap.newKeySet();
+            joined.add(subscriber);
+            return joined;
+        });
+        Runnable unsubscribe = () -> unsubscribe(subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (Exception e) {
+            unsubscribe.run();
+            emitter.completeWithError(e);
+        }
+        log.debug("Subscribed to device events of homeId: {}", homeId);
+        return emitter;
+    }
+
+    @Override
+    public void publish(List<DeviceChangeEventDto> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(events);
+                }
+            });
+        } else {
+            send(events);
+        }
+    }
+
+    /**
+     * Called on the container's single dispatch thread, so messages arrive in publish order and each
+     * subscriber's queue receives its events in that order.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            for (JsonNode event : objectMapper.readTree(message.getBody())) {
+                Set<Subscriber> homeSubscribers = subscribers.get(event.path("homeId").asLong());
+                if (homeSubscribers != null && !homeSubscribers.isEmpty()) {
+                    String name = event.path("type").asText();
+                    String data = event.toString();
+                    Set<ResponseBodyEmitter.DataWithMediaType> sse = SseEmitter.event().name(name)
+                            .data(data, MediaType.APPLICATION_JSON).build();
+                    homeSubscribers.forEach(subscriber -> subscriber.enqueue(sse));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error relaying device events", e);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects clients that went away without closing.
+     */
+    @Scheduled(fixedDelayString = "${app.devices.events.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> sse = SseEmitter.event().comment("heartbeat").build();
+        subscribers.values().forEach(homeSubscribers -> homeSubscribers.forEach(subscriber -> subscriber.enqueue(sse)));
+    }
+
+    private void send(List<DeviceChangeEventDto> events) {
+        try {
+            stringRedisTemplate.convertAndSend(EVENTS_CHANNEL, objectMapper.writeValueAsString(events));
+        } catch (Exception e) {
+            log.error("Error publishing {} device events", events.size(), e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.homeId, (id, homeSubscribers) -> {
+            homeSubscribers.remove(subscriber);
+            return homeSubscribers.isEmpty() ? null : homeSubscribers;
+        });
+    }
+
+    /**
+     * One client connection with a bounded queue of pending events. At most one drain task runs per
+     * subscriber at a time; a client that falls more than {@value #MAX_PENDING_EVENTS} events behind
+     * is disconnected rather than buffered without limit.
+     */
+    private final class Subscriber {
+
+        private final Long homeId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending =
+                new LinkedBlockingQueue<>(MAX_PENDING_EVENTS);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long homeId, SseEmitter emitter) {
+            this.homeId = homeId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> sse) {
+            if (!pending.offer(sse)) {
+                log.warn("Dropping device event subscriber of homeId: {} that fell behind", homeId);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> sse;
+                while ((sse = pending.poll()) != null) {
+                    try {
+                        emitter.send(sse);
+                    } catch (Exception e) {
+                        // the client is gone; the container completes the emitter and runs the callbacks
+                        unsubscribe(this);
+                        pending.clear();
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.DeviceGroupDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.DeviceGroup;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.DeviceGroupMapper;
+import com.shas.smart_home_automation_system.repository.DeviceGroupRepository;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
+import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.service.DeviceGroupService;
+import com.shas.smart_home_automation_system.service.DeviceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceGroupServiceImpl implements DeviceGroupService {
+
+    private final DeviceGroupRepository groupRepository;
+    private final HomeRepository homeRepository;
+    private final DeviceRepository deviceRepository;
+    private final DeviceService deviceService;
+    private final DeviceGroupMapper groupMapper;
+
+    private User getAuthenticatedUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeviceGroupDto> getHomeGroups(Long homeId) {
+        User user = getAuthenticatedUser();
+        log.info("Fetching device groups of home {} for user {}", homeId, user.getId());
+        if (!homeRepository.existsByIdAndUser(homeId, user)) {
+            throw new ResourceNotFoundException("Home not found with id: " + homeId);
+        }
+        return groupMapper.toDtoList(groupRepository.findByHomeIdAndHomeUserOrderByIdAsc(homeId, user));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DeviceGroupDto getGroupById(Long groupId) {
+        User user = getAuthenticatedUser();
+        log.info("Fetching device group {} for user {}", groupId, user.getId());
+        return groupMapper.toDto(findGroup(groupId, user));
+    }
+
+    @Override
+    @Transactional
+    public DeviceGroupDto createGroup(DeviceGroupDto groupDto) {
+        User user = getAuthenticatedUser();
+        log.info("Creating device group for home {} and user {}", groupDto.getHomeId(), user.getId());
+        Home home = homeRepository.findByIdAndUser(groupDto.getHomeId(), user)
+                .orElseThrow(() -> new ResourceNotFoundException("Home not found with id: " + groupDto.getHomeId()));
+
+        DeviceGroup group = new DeviceGroup();
+        group.setName(groupDto.getName());
+        group.setDescription(groupDto.getDescription());
+        group.setHome(home);
+        group.setDevices(members(home.getId(), groupDto.getDeviceIds()));
+
+        DeviceGroup savedGroup = groupRepository.save(group);
+        return groupMapper.toDto(savedGroup);
+    }
+
+    @Override
+    @Transactional
+    public DeviceGroupDto updateGroup(Long groupId, DeviceGroupDto groupDto) {
+        User user = getAuthenticatedUser();
+        log.info("Updating device group {} for user {}", groupId, user.getId());
+        DeviceGroup group = findGroup(groupId, user);
+        if (!group.getHome().getId().equals(groupDto.getHomeId())) {
+            throw new IllegalArgumentException("Device group " + groupId + " cannot be moved to another home");
+        }
+
+        group.setName(groupDto.getName());
+        group.setDescription(groupDto.getDescription());
+        // members always stay within the group's home
+        group.getDevices().clear();
+        group.getDevices().addAll(members(group.getHome().getId(), groupDto.getDeviceIds()));
+
+        DeviceGroup updatedGroup = groupRepository.save(group);
+        return groupMapper.toDto(updatedGroup);
+    }
+
+    @Override
+    @Transactional
+    public void deleteGroup(Long groupId) {
+        User user = getAuthenticatedUser();
+        log.info("Deleting device group {} for user {}", groupId, user.getId());
+        DeviceGroup group = findGroup(groupId, user);
+        groupRepository.delete(group);
+    }
+
+    @Override
+    @Transactional
+    public List<DeviceDto> updateGroupStatus(Long groupId, DeviceStatus status) {
+        User user = getAuthenticatedUser();
+        if (!groupRepository.existsByIdAndHomeUser(groupId, user)) {
+            throw new ResourceNotFoundException("Device group not found with id: " + groupId);
+        }
+        return deviceService.updateGroupStatus(groupId, status);
+    }
+
+    private DeviceGroup findGroup(Long groupId, User user) {
+        return groupRepository.findByIdAndHomeUser(groupId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Device group not found with id: " + groupId));
+    }
+
+    private Set<Device> members(Long homeId, Set<Long> deviceIds) {
+        if (deviceIds == null || deviceIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<Device> devices = deviceRepository.findByIdInAndHomeId(deviceIds, homeId);
+        if (devices.size() != deviceIds.size()) {
+            throw new ResourceNotFoundException("One or more devices not found or access denied");
+        }
+        return new HashSet<>(devices);
+    }
+}
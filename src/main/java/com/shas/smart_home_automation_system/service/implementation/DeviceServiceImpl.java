@@ -1,23 +1,44 @@
 package com.shas.smart_home_automation_system.service.implementation;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
+import com.shas.smart_home_automation_system.dto.DeviceChangeEventDto;
 import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.DeviceStateChangeDto;
+import com.shas.smart_home_automation_system.dto.DeviceStatusChangedEvent;
+import com.shas.smart_home_automation_system.dto.DevicesDeletedEvent;
 import com.shas.smart_home_automation_system.entity.Device;
 import com.shas.smart_home_automation_system.entity.Home;
 import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceChangeType;
 import com.shas.smart_home_automation_system.enums.DeviceStatus;
 import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.DeviceMapper;
 import com.shas.smart_home_automation_system.repository.DeviceRepository;
 import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.service.DeviceEventService;
 import com.shas.smart_home_automation_system.service.DeviceService;
+import com.shas.smart_home_automation_system.service.DeviceStateHistoryService;
+import com.shas.smart_home_automation_system.service.PowerConsumptionService;
 import com.shas.smart_home_automation_system.util.CacheService;
+import com.shas.smart_home_automation_system.util.CacheTags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -28,12 +49,17 @@ public class DeviceServiceImpl implements DeviceService {
     private final DeviceRepository deviceRepository;
     private final HomeRepository homeRepository;
     private final CacheService cacheService;
-    private final ModelMapper modelMapper;
+    private final PowerConsumptionService powerConsumptionService;
+    private final DeviceEventService deviceEventService;
+    private final DeviceStateHistoryService deviceStateHistoryService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final DeviceMapper deviceMapper;
 
     private static final String DEVICES_USER_CACHE = "devices_user";
     private static final String DEVICES_HOME_CACHE = "devices_home";
     private static final String DEVICE_CACHE = "device";
-    private static final String POWER_CONSUMPTION_CACHE = "power_consumption";
+    private static final String HOME_ACCESS_CACHE = "home_access";
+    private static final long PAGE_CACHE_TTL = 5;
 
     private User getAuthenticatedUser() {
         return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -46,19 +72,9 @@ public class DeviceServiceImpl implements DeviceService {
         Long userId = user.getId();
         log.info("Fetching all devices for userId: {}", userId);
 
-        @SuppressWarnings("unchecked")
-        List<DeviceDto> cachedDevices = cacheService.get(DEVICES_USER_CACHE, userId.toString(), List.class);
-        if (cachedDevices != null) {
-            log.info("Cache hit for user devices: {}", userId);
-            return cachedDevices;
-        }
-
-        List<DeviceDto> devices = deviceRepository.findByHomeUser(user).stream()
-                .map(this::convertToDto)
-                .toList();
-
-        cacheService.put(DEVICES_USER_CACHE, userId.toString(), devices, 30, TimeUnit.MINUTES);
-        return devices;
+        return cacheService.getOrLoadList(DEVICES_USER_CACHE, userId.toString(), DeviceDto::getId,
+                () -> deviceMapper.toDtoList(deviceRepository.findByHomeUser(user)),
+                30, TimeUnit.MINUTES, CacheTags.userDevices(userId));
     }
 
     @Override
@@ -68,22 +84,46 @@ public class DeviceServiceImpl implements DeviceService {
         Long userId = user.getId();
         log.info("Fetching all devices for homeId: {} and userId: {}", homeId, userId);
 
-        @SuppressWarnings("unchecked")
-        List<DeviceDto> cachedDevices = cacheService.get(DEVICES_HOME_CACHE, homeId.toString(), List.class);
-        if (cachedDevices != null) {
-            log.info("Cache hit for home devices: {}", homeId);
-            return cachedDevices;
-        }
+        return cacheService.getOrLoadList(DEVICES_HOME_CACHE, homeKey(homeId, userId), DeviceDto::getId,
+                () -> deviceMapper.toDtoList(deviceRepository.findByHomeIdAndHomeUser(homeId, user)),
+                30, TimeUnit.MINUTES, CacheTags.homeDevices(homeId), CacheTags.userDevices(userId));
+    }
 
-        List<DeviceDto> devices = deviceRepository.findByHomeIdAndHomeUser(homeId, user).stream()
-                .map(this::convertToDto)
-                .toList();
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<DeviceDto> getUserDevices(Long after, Integer limit) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        long cursor = CursorPageDto.normalizeCursor(after);
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        log.info("Fetching devices after {} for userId: {}", cursor, userId);
+
+        List<DeviceDto> items = cacheService.getOrLoad(DEVICES_USER_CACHE, pageKey(userId.toString(), cursor, pageSize),
+                () -> deviceMapper.toDtoList(
+                        deviceRepository.findByHomeUserAndIdGreaterThanOrderByIdAsc(user, cursor, Limit.of(pageSize))),
+                PAGE_CACHE_TTL, TimeUnit.MINUTES, CacheTags.userDevicePages(userId), CacheTags.userDevices(userId));
+        return CursorPageDto.of(items, pageSize, DeviceDto::getId);
+    }
 
-        cacheService.put(DEVICES_HOME_CACHE, homeId.toString(), devices, 30, TimeUnit.MINUTES);
-        return devices;
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<DeviceDto> getHomeDevices(Long homeId, Long after, Integer limit) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        long cursor = CursorPageDto.normalizeCursor(after);
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        log.info("Fetching devices after {} for homeId: {} and userId: {}", cursor, homeId, userId);
+
+        List<DeviceDto> items = cacheService.getOrLoad(DEVICES_HOME_CACHE, pageKey(homeKey(homeId, userId), cursor, pageSize),
+                () -> deviceMapper.toDtoList(deviceRepository.findByHomeIdAndHomeUserAndIdGreaterThanOrderByIdAsc(
+                        homeId, user, cursor, Limit.of(pageSize))),
+                PAGE_CACHE_TTL, TimeUnit.MINUTES, CacheTags.userDevicePages(userId), CacheTags.homeDevices(homeId),
+                CacheTags.userDevices(userId));
+        return CursorPageDto.of(items, pageSize, DeviceDto::getId);
     }
 
     @Override
+    @Transactional
     public DeviceDto createDevice(DeviceDto deviceDto) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -104,59 +144,206 @@ public class DeviceServiceImpl implements DeviceService {
 
         Device savedDevice = deviceRepository.save(device);
         log.info("Device created successfully with ID: {}", savedDevice.getId());
+        powerConsumptionService.applyDelta(home.getId(), onlinePower(savedDevice));
 
-        cacheService.evictPattern(DEVICES_USER_CACHE, "*");
-        cacheService.evictPattern(DEVICES_HOME_CACHE, "*");
-        cacheService.evictPattern(POWER_CONSUMPTION_CACHE, "*");
+        DeviceDto dto = deviceMapper.toDto(savedDevice);
+        writeThroughDeviceLists(userId, home.getId(), dto);
+        deviceEventService.publish(List.of(changeEvent(DeviceChangeType.CREATED, dto, dto)));
+        deviceStateHistoryService.record(List.of(
+                stateChange(savedDevice.getId(), null, savedDevice.getStatus(), userId, "Device created")));
 
-        return convertToDto(savedDevice);
+        return dto;
     }
 
     @Override
+    @Transactional
     public DeviceDto updateDeviceStatus(Long deviceId, DeviceStatus status) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
         log.info("Updating device status for deviceId: {} and userId: {}", deviceId, userId);
 
-        Device device = deviceRepository.findById(deviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Device not found"));
-
-        if (!device.getHome().getUser().equals(user)) {
-            throw new ResourceNotFoundException("Device not found or access denied");
-        }
+        Device device = deviceRepository.findByIdAndHomeUser(deviceId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Device not found or access denied"));
 
+        Long homeId = device.getHome().getId();
+        double powerBefore = onlinePower(device);
+        DeviceStatus statusBefore = device.getStatus();
         device.setStatus(status);
         Device updatedDevice = deviceRepository.save(device);
-        DeviceDto dto = convertToDto(updatedDevice);
-
-        cacheService.put(DEVICE_CACHE, deviceId.toString(), dto, 30, TimeUnit.MINUTES);
-        cacheService.evictPattern(DEVICES_USER_CACHE, "*");
-        cacheService.evictPattern(DEVICES_HOME_CACHE, "*");
-        cacheService.evictPattern(POWER_CONSUMPTION_CACHE, "*");
+        DeviceDto dto = deviceMapper.toDto(updatedDevice);
+
+        writeThroughDeviceLists(userId, homeId, dto);
+        powerConsumptionService.applyDelta(homeId, onlinePower(updatedDevice) - powerBefore);
+        cacheService.put(DEVICE_CACHE, deviceId.toString(), dto, 30, TimeUnit.MINUTES,
+                CacheTags.homeDevices(homeId));
+        if (statusBefore != status) {
+            deviceEventService.publish(List.of(changeEvent(DeviceChangeType.STATUS_CHANGED, dto, null)));
+            deviceStateHistoryService.record(List.of(stateChange(deviceId, statusBefore, status, userId, null)));
+            applicationEventPublisher.publishEvent(
+                    new DeviceStatusChangedEvent(dto.getHomeId(), deviceId, statusBefore, status));
+        }
 
         return dto;
     }
 
     @Override
-    public void deleteDevice(Long deviceId) {
+    @Transactional
+    public List<DeviceDto> updateDeviceStatuses(Collection<Long> deviceIds, DeviceStatus status) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
-        log.info("Deleting device with ID: {} for userId: {}", deviceId, userId);
+        Set<Long> ids = new LinkedHashSet<>(deviceIds);
+        log.info("Updating status of {} devices to {} for userId: {}", ids.size(), status, userId);
+
+        List<Device> devices = deviceRepository.findByIdInAndHomeUser(ids, user);
+        if (devices.size() != ids.size()) {
+            throw new ResourceNotFoundException("One or more devices not found or access denied");
+        }
+        return applyStatus(devices, status, userId, userId, "Bulk status update", true, null);
+    }
+
+    @Override
+    @Transactional
+    public List<DeviceDto> applyAutomationStatus(Long homeId, Collection<Long> deviceIds, DeviceStatus status,
+                                                 String reason) {
+        log.info("Automation setting status of {} devices in homeId: {} to {}", deviceIds.size(), homeId, status);
+        List<Device> devices = deviceRepository.findByIdInAndHomeId(deviceIds, homeId);
+        if (devices.isEmpty()) {
+            return List.of();
+        }
+        Long ownerId = devices.getFirst().getHome().getUser().getId();
+        return applyStatus(devices, status, ownerId, null, reason, false, null);
+    }
+
+    @Override
+    @Transactional
+    public List<DeviceDto> updateDeviceStatuses(Map<Long, DeviceStatus> statuses, String reason) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        log.info("Updating {} device statuses for userId: {}", statuses.size(), userId);
+
+        List<Device> devices = deviceRepository.findByIdInAndHomeUser(statuses.keySet(), user);
+        if (devices.size() != statuses.size()) {
+            throw new ResourceNotFoundException("One or more devices not found or access denied");
+        }
+        Map<Long, DeviceStatus> statusBefore = new HashMap<>();
+        for (Device device : devices) {
+            statusBefore.put(device.getId(), device.getStatus());
+            device.setStatus(statuses.get(device.getId()));
+        }
+        // the dirty devices are flushed as one batch of versioned UPDATEs (hibernate.jdbc.batch_size)
+        deviceRepository.flush();
+        log.info("Updated {} device statuses for userId: {}", devices.size(), userId);
+
+        return statusChanged(devices, statusBefore, userId, userId, reason, true, null);
+    }
+
+    @Override
+    @Transactional
+    public List<DeviceDto> updateGroupStatus(Long groupId, DeviceStatus status) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        log.info("Updating status of device group {} to {} for userId: {}", groupId, status, userId);
+
+        List<Device> devices = deviceRepository.findGroupMembers(groupId, user);
+        if (devices.isEmpty()) {
+            return List.of();
+        }
+        return applyStatus(devices, status, userId, userId, "Group status update", true, groupId);
+    }
+
+    /**
+     * One set-based UPDATE for all devices, then the shared follow-up of {@link #statusChanged}.
+     */
+    private List<DeviceDto> applyStatus(List<Device> devices, DeviceStatus status, Long userId, Long changedBy,
+                                        String reason, boolean triggerRules, Long groupId) {
+        Map<Long, DeviceStatus> statusBefore = new HashMap<>();
+        List<Long> ids = new ArrayList<>(devices.size());
+        for (Device device : devices) {
+            statusBefore.put(device.getId(), device.getStatus());
+            ids.add(device.getId());
+        }
+
+        int updated = deviceRepository.updateStatusByIdIn(ids, status, LocalDateTime.now());
+        log.info("Updated status of {} devices to {} for userId: {}", updated, status, userId);
 
-        Device device = deviceRepository.findById(deviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Device not found"));
+        devices.forEach(device -> device.setStatus(status));
+        return statusChanged(devices, statusBefore, userId, changedBy, reason, triggerRules, groupId);
+    }
+
+    /**
+     * One power delta and one cache tag per affected home, and a single publish of the resulting change
+     * events, for devices whose new status is already written. A group change is published as one
+     * consolidated event instead of one per device.
+     */
+    private List<DeviceDto> statusChanged(List<Device> devices, Map<Long, DeviceStatus> statusBefore, Long userId,
+                                          Long changedBy, String reason, boolean triggerRules, Long groupId) {
+        Map<Long, Double> powerDeltas = new TreeMap<>();
+        List<DeviceDto> dtos = new ArrayList<>(devices.size());
+        List<DeviceChangeEventDto> events = new ArrayList<>();
+        List<Long> changedIds = new ArrayList<>();
+        List<DeviceStateChangeDto> changes = new ArrayList<>();
+        for (Device device : devices) {
+            DeviceStatus before = statusBefore.get(device.getId());
+            DeviceStatus status = device.getStatus();
+            powerDeltas.merge(device.getHome().getId(),
+                    onlinePower(device) - onlinePower(before, device.getPowerConsumption()), Double::sum);
+            DeviceDto dto = deviceMapper.toDto(device);
+            dtos.add(dto);
+            if (before != status) {
+                if (groupId == null) {
+                    events.add(changeEvent(DeviceChangeType.STATUS_CHANGED, dto, null));
+                } else {
+                    changedIds.add(device.getId());
+                }
+                changes.add(stateChange(device.getId(), before, status, changedBy, reason));
+                if (triggerRules) {
+                    applicationEventPublisher.publishEvent(
+                            new DeviceStatusChangedEvent(dto.getHomeId(), device.getId(), before, status));
+                }
+            }
+        }
 
-        if (!device.getHome().getUser().equals(user)) {
-            throw new ResourceNotFoundException("Device not found or access denied");
+        if (!changedIds.isEmpty()) {
+            Device first = devices.getFirst();
+            events.add(new DeviceChangeEventDto(DeviceChangeType.GROUP_STATUS_CHANGED, first.getHome().getId(), null,
+                    first.getStatus(), null, groupId, changedIds, System.currentTimeMillis()));
         }
 
+        List<String> tags = new ArrayList<>(powerDeltas.size() + 2);
+        powerDeltas.forEach((homeId, delta) -> {
+            powerConsumptionService.applyDelta(homeId, delta);
+            tags.add(CacheTags.homeDevices(homeId));
+        });
+        tags.add(CacheTags.userDevices(userId));
+        tags.add(CacheTags.userDevicePages(userId));
+        cacheService.evictTags(tags.toArray(String[]::new));
+        deviceEventService.publish(events);
+        deviceStateHistoryService.record(changes);
+
+        return dtos;
+    }
+
+    @Override
+    @Transactional
+    public void deleteDevice(Long deviceId) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        log.info("Deleting device with ID: {} for userId: {}", deviceId, userId);
+
+        Device device = deviceRepository.findByIdAndHomeUser(deviceId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Device not found or access denied"));
+
         deviceRepository.delete(device);
         log.info("Deleted device with ID: {}", deviceId);
 
+        Long homeId = device.getHome().getId();
+        cacheService.removeListEntry(DEVICES_USER_CACHE, userId.toString(), deviceId);
+        cacheService.removeListEntry(DEVICES_HOME_CACHE, homeKey(homeId, userId), deviceId);
+        cacheService.evictTags(CacheTags.userDevicePages(userId));
+        powerConsumptionService.applyDelta(homeId, -onlinePower(device));
         cacheService.evict(DEVICE_CACHE, deviceId.toString());
-        cacheService.evictPattern(DEVICES_USER_CACHE, "*");
-        cacheService.evictPattern(DEVICES_HOME_CACHE, "*");
-        cacheService.evictPattern(POWER_CONSUMPTION_CACHE, "*");
+        deviceEventService.publish(DeviceChangeEventDto.deleted(homeId, List.of(deviceId)));
+        applicationEventPublisher.publishEvent(new DevicesDeletedEvent(homeId, List.of(deviceId)));
     }
 
     @Override
@@ -166,22 +353,49 @@ public class DeviceServiceImpl implements DeviceService {
         Long userId = user.getId();
         log.info("Fetching power consumption for homeId: {} and userId: {}", homeId, userId);
 
-        Double cachedValue = cacheService.get(POWER_CONSUMPTION_CACHE, homeId.toString(), Double.class);
-        if (cachedValue != null) {
-            log.info("Cache hit for power consumption of homeId: {}", homeId);
-            return cachedValue;
-        }
+        cacheService.getOrLoad(HOME_ACCESS_CACHE, homeKey(homeId, userId), () -> {
+            if (!homeRepository.existsByIdAndUser(homeId, user)) {
+                throw new ResourceNotFoundException("Home not found or access denied");
+            }
+            return Boolean.TRUE;
+        }, 30, TimeUnit.MINUTES, CacheTags.homeDevices(homeId));
 
-        homeRepository.findByIdAndUser(homeId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Home not found or access denied"));
+        return powerConsumptionService.getHomeTotal(homeId);
+    }
+
+    private void writeThroughDeviceLists(Long userId, Long homeId, DeviceDto dto) {
+        cacheService.putListEntry(DEVICES_USER_CACHE, userId.toString(), dto.getId(), dto);
+        cacheService.putListEntry(DEVICES_HOME_CACHE, homeKey(homeId, userId), dto.getId(), dto);
+        cacheService.evictTags(CacheTags.userDevicePages(userId));
+    }
+
+    private static DeviceChangeEventDto changeEvent(DeviceChangeType type, DeviceDto dto, DeviceDto device) {
+        return new DeviceChangeEventDto(type, dto.getHomeId(), dto.getId(), dto.getStatus(), device, null, null,
+                System.currentTimeMillis());
+    }
+
+    private static DeviceStateChangeDto stateChange(Long deviceId, DeviceStatus oldStatus, DeviceStatus newStatus,
+                                                    Long userId, String reason) {
+        return new DeviceStateChangeDto(null, deviceId, oldStatus, newStatus, userId, reason,
+                LocalDateTime.now(ZoneOffset.UTC));
+    }
 
-        Double totalPower = deviceRepository.getTotalPowerConsumptionByHome(homeId).orElse(0.0);
+    private static double onlinePower(Device device) {
+        return onlinePower(device.getStatus(), device.getPowerConsumption());
+    }
+
+    private static double onlinePower(DeviceStatus status, Double powerConsumption) {
+        if (status != DeviceStatus.ONLINE || powerConsumption == null) {
+            return 0.0;
+        }
+        return powerConsumption;
+    }
 
-        cacheService.put(POWER_CONSUMPTION_CACHE, homeId.toString(), totalPower, 10, TimeUnit.MINUTES);
-        return totalPower;
+    private static String homeKey(Long homeId, Long userId) {
+        return homeId + ":user:" + userId;
     }
 
-    private DeviceDto convertToDto(Device device) {
-        return modelMapper.map(device, DeviceDto.class);
+    private static String pageKey(String listKey, long after, int limit) {
+        return listKey + ":page:" + after + ":" + limit;
     }
 }
@@ -0,0 +1,108 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
+import com.shas.smart_home_automation_system.dto.DeviceStateChangeDto;
+import com.shas.smart_home_automation_system.dto.DeviceStateHistoryPageDto;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
+import com.shas.smart_home_automation_system.repository.DeviceStateHistoryJdbcRepository;
+import com.shas.smart_home_automation_system.service.DeviceStateHistoryService;
+import com.shas.smart_home_automation_system.util.BufferedBatchWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records device status transitions without adding a write to the status update path. Transitions
+ * enter a bounded buffer once the changing transaction commits and a single writer thread flushes
+ * them to {@code device_state_history} in JDBC batches. History is best effort: when the buffer is
+ * full, transitions are dropped and counted as rejected rather than slowing down or failing the
+ * status change.
+ */
+@Slf4j
+@Service
+public class DeviceStateHistoryServiceImpl implements DeviceStateHistoryService {
+
+    private final DeviceStateHistoryJdbcRepository historyRepository;
+    private final DeviceRepository deviceRepository;
+    private final BufferedBatchWriter<DeviceStateChangeDto> writer;
+
+    public DeviceStateHistoryServiceImpl(DeviceStateHistoryJdbcRepository historyRepository,
+                                         DeviceRepository deviceRepository,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.devices.history.buffer-capacity:50000}") int bufferCapacity,
+                                         @Value("${app.devices.history.batch-size:1000}") int batchSize,
+                                         @Value("${app.devices.history.flush-interval-ms:500}") long flushIntervalMillis) {
+        this.historyRepository = historyRepository;
+        this.deviceRepository = deviceRepository;
+        // the plain batch aborts on a device deleted since its transition was recorded
+        this.writer = new BufferedBatchWriter<>("state-history", "transitions", bufferCapacity, batchSize,
+                flushIntervalMillis, historyRepository::insert, historyRepository::insertExisting,
+                meterRegistry, "smarthome.devices.history");
+    }
+
+    private User getAuthenticatedUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer.start();
+    }
+
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Override
+    public void record(List<DeviceStateChangeDto> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(changes);
+                }
+            });
+        } else {
+            enqueue(changes);
+        }
+    }
+
+    @Override
+    public void flush() {
+        writer.flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DeviceStateHistoryPageDto getHistory(Long deviceId, LocalDateTime before, Long beforeId, Integer limit) {
+        User user = getAuthenticatedUser();
+        log.info("Fetching state history for deviceId: {} and userId: {}", deviceId, user.getId());
+        if (!deviceRepository.existsByIdAndHomeUser(deviceId, user)) {
+            throw new ResourceNotFoundException("Device not found or access denied");
+        }
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        return DeviceStateHistoryPageDto.of(historyRepository.findPage(deviceId, before, beforeId, pageSize), pageSize);
+    }
+
+    private void enqueue(List<DeviceStateChangeDto> changes) {
+        if (!writer.offerAll(changes)) {
+            log.warn("State history buffer is full, dropping {} transitions", changes.size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.DailyEnergyDto;
+import com.shas.smart_home_automation_system.dto.EnergyReportDto;
+import com.shas.smart_home_automation_system.repository.EnergyConsumptionJdbcRepository;
+import com.shas.smart_home_automation_system.service.EnergyConsumptionService;
+import com.shas.smart_home_automation_system.service.HomeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Periodically upserts the last few days of per-home energy totals and refreshes the
+ * {@code daily_energy_consumption} view concurrently, so reports keep reading the previous
+ * snapshot while the refresh runs.
+ */
+@Slf4j
+@Service
+public class EnergyConsumptionServiceImpl implements EnergyConsumptionService {
+
+    // daily_energy_consumption only keeps the last 30 days
+    private static final int REPORT_DAYS = 30;
+
+    private final EnergyConsumptionJdbcRepository energyRepository;
+    private final HomeService homeService;
+    private final int lookbackDays;
+
+    public EnergyConsumptionServiceImpl(EnergyConsumptionJdbcRepository energyRepository,
+                                        HomeService homeService,
+                                        @Value("${app.energy.lookback-days:1}") int lookbackDays) {
+        this.energyRepository = energyRepository;
+        this.homeService = homeService;
+        this.lookbackDays = lookbackDays;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.energy.refresh-interval-ms:900000}",
+            initialDelayString = "${app.energy.refresh-interval-ms:900000}")
+    public void refreshEnergyConsumption() {
+        try {
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            LocalDate today = now.toLocalDate();
+            int upserted = energyRepository.upsertDailyTotals(today.minusDays(lookbackDays), today.plusDays(1), now);
+            if (upserted < 0) {
+                log.debug("Energy consumption refresh is running on another node");
+                return;
+            }
+            energyRepository.refreshDailyView();
+            log.debug("Upserted {} daily energy totals and refreshed daily_energy_consumption", upserted);
+        } catch (Exception e) {
+            log.error("Error refreshing energy consumption", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EnergyReportDto getEnergyReport(Long homeId, LocalDate from, LocalDate to) {
+        // throws ResourceNotFoundException unless the home belongs to the current user
+        homeService.getHomeById(homeId);
+
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(REPORT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        List<DailyEnergyDto> days = energyRepository.findDaily(homeId, start, end);
+        double total = days.stream().mapToDouble(DailyEnergyDto::getConsumption).sum();
+        return new EnergyReportDto(homeId, start, end, total, days);
+    }
+}
@@ -0,0 +1,119 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningRequestDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningResultDto;
+import com.shas.smart_home_automation_system.dto.RoomProvisioningDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.Room;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.DeviceMapper;
+import com.shas.smart_home_automation_system.mapper.RoomMapper;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
+import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.repository.RoomRepository;
+import com.shas.smart_home_automation_system.service.HomeProvisioningService;
+import com.shas.smart_home_automation_system.util.CacheService;
+import com.shas.smart_home_automation_system.util.CacheTags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeProvisioningServiceImpl implements HomeProvisioningService {
+
+    private final HomeRepository homeRepository;
+    private final RoomRepository roomRepository;
+    private final DeviceRepository deviceRepository;
+    private final CacheService cacheService;
+    private final RoomMapper roomMapper;
+    private final DeviceMapper deviceMapper;
+
+    private static final String ROOMS_CACHE = "rooms";
+
+    private User getAuthenticatedUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @Override
+    @Transactional
+    public HomeProvisioningResultDto provisionHome(Long homeId, HomeProvisioningRequestDto request) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        log.info("Provisioning {} rooms for homeId: {} and userId: {}", request.getRooms().size(), homeId, userId);
+
+        Home home = homeRepository.findByIdAndUser(homeId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Home not found or access denied"));
+
+        List<Room> rooms = new ArrayList<>(request.getRooms().size());
+        List<Device> devices = new ArrayList<>();
+        for (RoomProvisioningDto roomDto : request.getRooms()) {
+            Room room = new Room();
+            room.setName(roomDto.getName());
+            room.setDescription(roomDto.getDescription());
+            room.setType(roomDto.getType());
+            room.setHome(home);
+            rooms.add(room);
+            for (DeviceDto deviceDto : roomDto.getDevices()) {
+                devices.add(newDevice(deviceDto, home, room));
+            }
+        }
+
+        Map<Long, Room> existingRooms = existingRooms(homeId, user, request.getDevices());
+        for (DeviceDto deviceDto : request.getDevices()) {
+            Room room = null;
+            if (deviceDto.getRoomId() != null) {
+                room = existingRooms.get(deviceDto.getRoomId());
+                if (room == null) {
+                    throw new ResourceNotFoundException("Room not found with id: " + deviceDto.getRoomId());
+                }
+            }
+            devices.add(newDevice(deviceDto, home, room));
+        }
+
+        List<Room> savedRooms = roomRepository.saveAll(rooms);
+        List<Device> savedDevices = deviceRepository.saveAllAndFlush(devices);
+        log.info("Provisioned {} rooms and {} devices for homeId: {}", savedRooms.size(), savedDevices.size(), homeId);
+
+        cacheService.evictMany(ROOMS_CACHE, List.of("userRooms:" + userId, "homeRooms:" + homeId + ":user:" + userId));
+        cacheService.evictTags(CacheTags.userRooms(userId), CacheTags.homeDevices(homeId),
+                CacheTags.userDevices(userId), CacheTags.userDevicePages(userId));
+
+        return new HomeProvisioningResultDto(homeId, roomMapper.toDtoList(savedRooms), deviceMapper.toDtoList(savedDevices));
+    }
+
+    private Map<Long, Room> existingRooms(Long homeId, User user, List<DeviceDto> devices) {
+        if (devices.stream().allMatch(device -> device.getRoomId() == null)) {
+            return Map.of();
+        }
+        return roomRepository.findByHomeIdAndHomeUser(homeId, user).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+    }
+
+    private static Device newDevice(DeviceDto deviceDto, Home home, Room room) {
+        Device device = new Device();
+        device.setName(deviceDto.getName());
+        device.setDeviceId(deviceDto.getDeviceId());
+        device.setType(deviceDto.getType());
+        device.setStatus(DeviceStatus.OFFLINE);
+        device.setHome(home);
+        device.setRoom(room);
+        device.setManufacturer(deviceDto.getManufacturer());
+        device.setModel(deviceDto.getModel());
+        device.setPowerConsumption(deviceDto.getPowerConsumption());
+        return device;
+    }
+}
@@ -1,16 +1,25 @@
 package com.shas.smart_home_automation_system.service.implementation;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
+import com.shas.smart_home_automation_system.dto.DeviceChangeEventDto;
+import com.shas.smart_home_automation_system.dto.DevicesDeletedEvent;
 import com.shas.smart_home_automation_system.dto.HomeDto;
 import com.shas.smart_home_automation_system.entity.Home;
 import com.shas.smart_home_automation_system.entity.User;
 import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.HomeMapper;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
 import com.shas.smart_home_automation_system.repository.HomeRepository;
 import com.shas.smart_home_automation_system.repository.UserRepository;
+import com.shas.smart_home_automation_system.service.DeviceEventService;
 import com.shas.smart_home_automation_system.service.HomeService;
+import com.shas.smart_home_automation_system.service.PowerConsumptionService;
 import com.shas.smart_home_automation_system.util.CacheService;
+import com.shas.smart_home_automation_system.util.CacheTags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,12 +34,17 @@ public class HomeServiceImpl implements HomeService {
 
     private final HomeRepository homeRepository;
     private final UserRepository userRepository;
+    private final DeviceRepository deviceRepository;
     private final CacheService cacheService;
-    private final ModelMapper modelMapper;
+    private final PowerConsumptionService powerConsumptionService;
+    private final DeviceEventService deviceEventService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final HomeMapper homeMapper;
 
     private static final String CACHE_NAME = "homes";
     private static final long CACHE_TTL = 10;
     private static final TimeUnit TIME_UNIT = TimeUnit.MINUTES;
+    private static final long PAGE_CACHE_TTL = 5;
 
     private User getAuthenticatedUser() {
         return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -41,49 +55,42 @@ public class HomeServiceImpl implements HomeService {
     public List<HomeDto> getUserHomes() {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
-        String cacheKey = "userHomes:" + userId;
-
-        @SuppressWarnings("unchecked")
-        List<HomeDto> cachedHomes = cacheService.get(CACHE_NAME, cacheKey, List.class);
-        if (cachedHomes != null) {
-            log.info("Returning homes from cache for userId: {}", userId);
-            return cachedHomes;
-        }
-
-        log.info("Fetching homes from DB for userId: {}", userId);
-        List<HomeDto> homes = homeRepository.findByUser(user)
-                .stream()
-                .map(this::convertToDto)
-                .toList();
-
-        cacheService.put(CACHE_NAME, cacheKey, homes, CACHE_TTL, TIME_UNIT);
-        return homes;
+        return cacheService.getOrLoad(CACHE_NAME, "userHomes:" + userId, () -> {
+            log.info("Fetching homes from DB for userId: {}", userId);
+            return homeMapper.toDtoList(homeRepository.findByUser(user));
+        }, CACHE_TTL, TIME_UNIT);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public HomeDto getHomeById(Long homeId) {
+    public CursorPageDto<HomeDto> getUserHomes(Long after, Integer limit) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
-        String cacheKey = "home:" + homeId + ":user:" + userId;
-
-        HomeDto cachedHome = cacheService.get(CACHE_NAME, cacheKey, HomeDto.class);
-        if (cachedHome != null) {
-            log.info("Returning home {} for user {} from cache", homeId, userId);
-            return cachedHome;
-        }
-
-        log.info("Fetching home {} for user {} from DB", homeId, userId);
-        Home home = homeRepository.findByIdAndUser(homeId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Home not found with id: " + homeId));
+        long cursor = CursorPageDto.normalizeCursor(after);
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        List<HomeDto> items = cacheService.getOrLoad(CACHE_NAME, "userHomes:" + userId + ":page:" + cursor + ":" + pageSize, () -> {
+            log.info("Fetching homes after {} from DB for userId: {}", cursor, userId);
+            return homeMapper.toDtoList(homeRepository.findByUserAndIdGreaterThanOrderByIdAsc(user, cursor, Limit.of(pageSize)));
+        }, PAGE_CACHE_TTL, TIME_UNIT, CacheTags.userHomes(userId));
+        return CursorPageDto.of(items, pageSize, HomeDto::getId);
+    }
 
-        HomeDto homeDto = convertToDto(home);
-        cacheService.put(CACHE_NAME, cacheKey, homeDto, CACHE_TTL, TIME_UNIT);
+    @Override
+    @Transactional(readOnly = true)
+    public HomeDto getHomeById(Long homeId) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        return cacheService.getOrLoad(CACHE_NAME, "home:" + homeId + ":user:" + userId, () -> {
+            log.info("Fetching home {} for user {} from DB", homeId, userId);
+            Home home = homeRepository.findByIdAndUser(homeId, user)
+                    .orElseThrow(() -> new ResourceNotFoundException("Home not found with id: " + homeId));
 
-        return homeDto;
+            return homeMapper.toDto(home);
+        }, CACHE_TTL, TIME_UNIT);
     }
 
     @Override
+    @Transactional
     public HomeDto createHome(HomeDto homeDto) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -96,13 +103,15 @@ public class HomeServiceImpl implements HomeService {
         home.setUser(user);
 
         Home savedHome = homeRepository.save(home);
-        HomeDto savedDto = convertToDto(savedHome);
+        HomeDto savedDto = homeMapper.toDto(savedHome);
 
         cacheService.evict(CACHE_NAME, "userHomes:" + userId);
+        cacheService.evictTags(CacheTags.userHomes(userId));
         return savedDto;
     }
 
     @Override
+    @Transactional
     public HomeDto updateHome(Long homeId, HomeDto homeDto) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -116,15 +125,17 @@ public class HomeServiceImpl implements HomeService {
         home.setTimezone(homeDto.getTimezone());
 
         Home updatedHome = homeRepository.save(home);
-        HomeDto updatedDto = convertToDto(updatedHome);
+        HomeDto updatedDto = homeMapper.toDto(updatedHome);
 
         cacheService.put(CACHE_NAME, "home:" + homeId + ":user:" + userId, updatedDto, CACHE_TTL, TIME_UNIT);
         cacheService.evict(CACHE_NAME, "userHomes:" + userId);
+        cacheService.evictTags(CacheTags.userHomes(userId));
 
         return updatedDto;
     }
 
     @Override
+    @Transactional
     public void deleteHome(Long homeId) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -132,14 +143,16 @@ public class HomeServiceImpl implements HomeService {
         log.info("Deleting home {} for user {}", homeId, userId);
         Home home = homeRepository.findByIdAndUser(homeId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Home not found with id: " + homeId));
+        // the home's devices go with it by cascade
+        List<Long> deviceIds = deviceRepository.findIdsByHomeId(homeId);
 
         homeRepository.delete(home);
 
-        cacheService.evict(CACHE_NAME, "home:" + homeId + ":user:" + userId);
-        cacheService.evict(CACHE_NAME, "userHomes:" + userId);
-    }
-
-    private HomeDto convertToDto(Home home) {
-        return modelMapper.map(home, HomeDto.class);
+        cacheService.evictMany(CACHE_NAME, List.of("home:" + homeId + ":user:" + userId, "userHomes:" + userId));
+        cacheService.evictTags(CacheTags.userHomes(userId), CacheTags.userRooms(userId),
+                CacheTags.userDevices(userId), CacheTags.homeDevices(homeId));
+        powerConsumptionService.removeHome(homeId);
+        deviceEventService.publish(DeviceChangeEventDto.deleted(homeId, deviceIds));
+        applicationEventPublisher.publishEvent(new DevicesDeletedEvent(homeId, deviceIds));
     }
 }
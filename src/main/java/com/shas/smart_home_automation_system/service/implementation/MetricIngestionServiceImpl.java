@@ -0,0 +1,103 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.MetricIngestResultDto;
+import com.shas.smart_home_automation_system.dto.MetricReadingDto;
+import com.shas.smart_home_automation_system.exceptions.BackpressureException;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.repository.DeviceMetricJdbcRepository;
+import com.shas.smart_home_automation_system.service.DeviceService;
+import com.shas.smart_home_automation_system.service.MetricIngestionService;
+import com.shas.smart_home_automation_system.service.MetricRollupService;
+import com.shas.smart_home_automation_system.service.RuleEngineService;
+import com.shas.smart_home_automation_system.util.BufferedBatchWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts telemetry into a bounded in-memory buffer and returns immediately; a single writer thread
+ * drains the buffer every flush interval and bulk-loads it into {@code device_metrics}. When the
+ * buffer is full the whole request is rejected so callers back off instead of queueing unbounded work.
+ */
+@Slf4j
+@Service
+public class MetricIngestionServiceImpl implements MetricIngestionService {
+
+    private final DeviceService deviceService;
+    private final RuleEngineService ruleEngineService;
+    private final MetricRollupService metricRollupService;
+    private final BufferedBatchWriter<MetricReadingDto> writer;
+
+    public MetricIngestionServiceImpl(DeviceService deviceService,
+                                      DeviceMetricJdbcRepository metricRepository,
+                                      RuleEngineService ruleEngineService,
+                                      MetricRollupService metricRollupService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.metrics.ingest.buffer-capacity:100000}") int bufferCapacity,
+                                      @Value("${app.metrics.ingest.batch-size:5000}") int batchSize,
+                                      @Value("${app.metrics.ingest.flush-interval-ms:100}") long flushIntervalMillis,
+                                      @Value("${app.metrics.ingest.writer:copy}") String writerMode) {
+        this.deviceService = deviceService;
+        this.ruleEngineService = ruleEngineService;
+        this.metricRollupService = metricRollupService;
+        boolean useCopy = "copy".equalsIgnoreCase(writerMode);
+        // COPY aborts on the first row whose device was deleted; the INSERT path filters those out
+        this.writer = new BufferedBatchWriter<>("metrics", "readings", bufferCapacity, batchSize, flushIntervalMillis,
+                useCopy ? metricRepository::copy : metricRepository::insert,
+                useCopy ? metricRepository::insert : null,
+                meterRegistry, "smarthome.metrics.ingest");
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer.start();
+    }
+
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Override
+    public MetricIngestResultDto ingest(List<MetricReadingDto> readings) {
+        Set<Long> ownedDevices = deviceService.getUserDevices().stream()
+                .map(DeviceDto::getId)
+                .collect(Collectors.toSet());
+        LocalDateTime receivedAt = LocalDateTime.now(ZoneOffset.UTC);
+        // older readings land behind the rollups and would never show up in a series
+        LocalDateTime earliest = metricRollupService.earliestRollupReading();
+        for (MetricReadingDto reading : readings) {
+            if (!ownedDevices.contains(reading.getDeviceId())) {
+                throw new ResourceNotFoundException("Device not found or access denied: " + reading.getDeviceId());
+            }
+            if (reading.getRecordedAt() == null) {
+                reading.setRecordedAt(receivedAt);
+            } else if (earliest != null && reading.getRecordedAt().isBefore(earliest)) {
+                throw new IllegalArgumentException("Readings recorded before " + earliest + " are no longer accepted");
+            }
+        }
+
+        if (!writer.offerAll(readings)) {
+            throw new BackpressureException("Metric buffer is full, retry later",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(writer.flushIntervalMillis() * 10)));
+        }
+        ruleEngineService.onMetricReadings(readings);
+        return new MetricIngestResultDto(readings.size(), writer.size(), writer.capacity());
+    }
+
+    @Override
+    public void flush() {
+        writer.flush();
+    }
+}
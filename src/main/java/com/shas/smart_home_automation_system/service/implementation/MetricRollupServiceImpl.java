@@ -0,0 +1,146 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.MetricBucketDto;
+import com.shas.smart_home_automation_system.dto.MetricSeriesDto;
+import com.shas.smart_home_automation_system.enums.MetricResolution;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.repository.MetricRollupJdbcRepository;
+import com.shas.smart_home_automation_system.service.DeviceService;
+import com.shas.smart_home_automation_system.service.MetricRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the 1m/1h/1d metric rollups current and answers downsampled series queries from them. Each
+ * level is built incrementally from the next finer one, so a refresh only touches buckets after the
+ * level's watermark plus a small lookback for readings that arrive late. Ingestion rejects readings
+ * older than the minute watermark, which stays within that lookback of the stored watermark as long as
+ * the lookback exceeds the refresh interval.
+ */
+@Slf4j
+@Service
+public class MetricRollupServiceImpl implements MetricRollupService {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+    private static final int DEFAULT_POINTS = 200;
+    private static final List<Duration> AUTO_STEPS = List.of(
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofMinutes(30),
+            Duration.ofHours(1), Duration.ofHours(3), Duration.ofHours(6), Duration.ofHours(12),
+            Duration.ofDays(1), Duration.ofDays(7));
+
+    private final DeviceService deviceService;
+    private final MetricRollupJdbcRepository rollupRepository;
+    private final Duration lateArrival;
+    private final int maxBuckets;
+
+    private volatile LocalDateTime minuteWatermark;
+
+    public MetricRollupServiceImpl(DeviceService deviceService,
+                                   MetricRollupJdbcRepository rollupRepository,
+                                   @Value("${app.metrics.rollup.late-arrival:2m}") Duration lateArrival,
+                                   @Value("${app.metrics.rollup.max-buckets:2000}") int maxBuckets) {
+        this.deviceService = deviceService;
+        this.rollupRepository = rollupRepository;
+        this.lateArrival = lateArrival;
+        this.maxBuckets = maxBuckets;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.metrics.rollup.interval-ms:60000}")
+    public void refreshRollups() {
+        try {
+            Map<MetricResolution, LocalDateTime> watermarks = rollupRepository.watermarks();
+            minuteWatermark = watermarks.get(MetricResolution.MINUTE);
+            // only whole minutes that have already ended are rolled up; coarser levels follow their child
+            LocalDateTime target = MetricResolution.MINUTE.truncate(LocalDateTime.now(ZoneOffset.UTC));
+            for (MetricResolution resolution : MetricResolution.values()) {
+                target = resolution.truncate(target);
+                target = refresh(resolution, watermarks.get(resolution), target);
+            }
+        } catch (Exception e) {
+            log.error("Error refreshing metric rollups", e);
+        }
+    }
+
+    @Override
+    public LocalDateTime earliestRollupReading() {
+        return minuteWatermark;
+    }
+
+    private LocalDateTime refresh(MetricResolution resolution, LocalDateTime watermark, LocalDateTime target) {
+        LocalDateTime start = watermark != null
+                ? resolution.truncate(watermark.minus(lateArrival))
+                : rollupRepository.earliestSource(resolution);
+        if (start == null) {
+            return target;
+        }
+        Duration chunk = resolution.getBucket().multipliedBy(resolution == MetricResolution.DAY ? 31 : 60);
+        LocalDateTime rolledUpTo = watermark != null ? watermark : start;
+        while (start.isBefore(target)) {
+            LocalDateTime end = start.plus(chunk).isBefore(target) ? start.plus(chunk) : target;
+            if (!rollupRepository.rollUp(resolution, start, end)) {
+                log.debug("Metric rollup {} is running on another node", resolution.getLabel());
+                break;
+            }
+            start = end;
+            rolledUpTo = end;
+        }
+        return rolledUpTo.isBefore(target) ? rolledUpTo : target;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MetricSeriesDto getSeries(Long deviceId, String metricType, LocalDateTime from, LocalDateTime to,
+                                     String resolution) {
+        boolean owned = deviceService.getUserDevices().stream().anyMatch(device -> device.getId().equals(deviceId));
+        if (!owned) {
+            throw new ResourceNotFoundException("Device not found or access denied: " + deviceId);
+        }
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_RANGE);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        Duration range = Duration.between(start, end);
+        Duration step = resolution != null ? DurationStyle.detectAndParse(resolution) : autoStep(range, DEFAULT_POINTS);
+        if (step.toSeconds() < 1) {
+            throw new IllegalArgumentException("Resolution must be at least one second");
+        }
+        if (range.dividedBy(step) > maxBuckets) {
+            step = autoStep(range, maxBuckets);
+        }
+
+        MetricResolution source = MetricResolution.coarsestFor(step);
+        if (source != null) {
+            // widen to whole source buckets so no rollup row straddles the requested range
+            start = source.truncate(start);
+            LocalDateTime truncatedEnd = source.truncate(end);
+            end = truncatedEnd.isBefore(end) ? truncatedEnd.plus(source.getBucket()) : end;
+        }
+        List<MetricBucketDto> buckets = rollupRepository.series(deviceId, metricType, start, end, step, source,
+                rollupRepository.watermarks());
+        return new MetricSeriesDto(deviceId, metricType, start, end, step.toSeconds(),
+                source != null ? source.getLabel() : "raw", buckets);
+    }
+
+    static Duration autoStep(Duration range, int points) {
+        for (Duration step : AUTO_STEPS) {
+            if (range.dividedBy(step) <= points) {
+                return step;
+            }
+        }
+        Duration last = AUTO_STEPS.get(AUTO_STEPS.size() - 1);
+        return last.multipliedBy(range.dividedBy(last.multipliedBy(points)) + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.service.PartitionMaintenanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Keeps the time-partitioned tables created in V8 ahead of incoming data and enforces retention by
+ * dropping whole partitions. V8 gives every table a default partition, which rules out
+ * {@code DETACH PARTITION ... CONCURRENTLY}, so each expired partition is dropped directly and holds
+ * a brief exclusive lock on the parent. Rows that ended up in the default partition are purged by age.
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceServiceImpl implements PartitionMaintenanceService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<PartitionedTable> tables;
+
+    public PartitionMaintenanceServiceImpl(JdbcTemplate jdbcTemplate,
+                                           @Value("${app.partitions.device-metrics.retention:90d}") Duration metricsRetention,
+                                           @Value("${app.partitions.device-metrics.premake:7d}") Duration metricsPremake,
+                                           @Value("${app.partitions.device-events.retention:365d}") Duration eventsRetention,
+                                           @Value("${app.partitions.device-events.premake:28d}") Duration eventsPremake) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tables = List.of(
+                new PartitionedTable("device_metrics", "recorded_at", "day", metricsRetention, metricsPremake),
+                new PartitionedTable("device_events", "created_at", "week", eventsRetention, eventsPremake));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Override
+    @Scheduled(cron = "${app.partitions.maintenance-cron:0 15 * * * *}")
+    public void maintainPartitions() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        for (PartitionedTable table : tables) {
+            try {
+                createUpcoming(table, now);
+            } catch (Exception e) {
+                log.error("Error creating partitions of {}", table.name(), e);
+            }
+            dropExpired(table, now);
+        }
+    }
+
+    private void createUpcoming(PartitionedTable table, LocalDateTime now) {
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_time_partitions(?, ?, ?, ?, ?)", Integer.class,
+                table.name(), table.column(), table.unit(),
+                Timestamp.valueOf(now), Timestamp.valueOf(now.plus(table.premake())));
+        if (created != null && created > 0) {
+            log.info("Created {} partitions of {}", created, table.name());
+        }
+    }
+
+    private void dropExpired(PartitionedTable table, LocalDateTime now) {
+        Timestamp cutoff = Timestamp.valueOf(now.minus(table.retention()));
+        try {
+            List<String> expired = jdbcTemplate.queryForList(
+                    "SELECT partition_name FROM expired_time_partitions(?, ?)", String.class, table.name(), cutoff);
+            for (String partition : expired) {
+                try {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    log.info("Dropped expired partition {} of {}", partition, table.name());
+                } catch (Exception e) {
+                    log.error("Error dropping expired partition {} of {}", partition, table.name(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error listing expired partitions of {}", table.name(), e);
+        }
+        try {
+            int purged = jdbcTemplate.update(
+                    "DELETE FROM " + table.name() + "_default WHERE " + table.column() + " < ?", cutoff);
+            if (purged > 0) {
+                log.info("Purged {} expired rows from the default partition of {}", purged, table.name());
+            }
+        } catch (Exception e) {
+            log.error("Error purging the default partition of {}", table.name(), e);
+        }
+    }
+
+    private record PartitionedTable(String name, String column, String unit, Duration retention, Duration premake) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.config.ReplicaRoutingDataSource;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
+import com.shas.smart_home_automation_system.service.PowerConsumptionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running ONLINE power total per home, kept in one Redis hash and adjusted by deltas as devices
+ * change. A home's field is seeded from the SUM query on first read; deltas only touch seeded
+ * fields, and a periodic reconciliation overwrites seeded fields with the SUM to correct drift.
+ * Both SUMs run on the primary so a lagging replica cannot overwrite a correct total.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PowerConsumptionServiceImpl implements PowerConsumptionService {
+
+    private static final String TOTALS_KEY = "smarthome:power_totals";
+    private static final double DRIFT_TOLERANCE = 1e-6;
+
+    private static final RedisScript<String> INCREMENT_SCRIPT = RedisScript.of("""
+            if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then
+                return redis.call('hincrbyfloat', KEYS[1], ARGV[1], ARGV[2])
+            end
+            return false
+            """, String.class);
+
+    private static final RedisScript<Long> RECONCILE_SCRIPT = RedisScript.of("""
+            if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then
+                redis.call('hset', KEYS[1], ARGV[1], ARGV[2])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DeviceRepository deviceRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Double getHomeTotal(Long homeId) {
+        String field = homeId.toString();
+        try {
+            Object cached = stringRedisTemplate.opsForHash().get(TOTALS_KEY, field);
+            if (cached != null) {
+                return Double.parseDouble(cached.toString());
+            }
+        } catch (Exception e) {
+            log.error("Error reading power total for homeId: {}", homeId, e);
+            return deviceRepository.getTotalPowerConsumptionByHome(homeId).orElse(0.0);
+        }
+
+        double total = ReplicaRoutingDataSource.onPrimary(() -> deviceRepository.getTotalPowerConsumptionByHome(homeId))
+                .orElse(0.0);
+        try {
+            stringRedisTemplate.opsForHash().putIfAbsent(TOTALS_KEY, field, Double.toString(total));
+        } catch (Exception e) {
+            log.error("Error seeding power total for homeId: {}", homeId, e);
+        }
+        return total;
+    }
+
+    @Override
+    public void applyDelta(Long homeId, double delta) {
+        if (delta == 0.0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(homeId, delta);
+                }
+            });
+        } else {
+            increment(homeId, delta);
+        }
+    }
+
+    /**
+     * Drops the home's field once the deleting transaction commits, so a rollback keeps the total and
+     * a concurrent read cannot reseed it from the SUM taken before the devices were deleted.
+     */
+    @Override
+    public void removeHome(Long homeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteTotal(homeId);
+                }
+            });
+        } else {
+            deleteTotal(homeId);
+        }
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.power.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.power.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            if (!deviceRepository.tryLockPowerTotals()) {
+                log.debug("Power totals are being reconciled by another instance");
+                return;
+            }
+            Map<Object, Object> cached = stringRedisTemplate.opsForHash().entries(TOTALS_KEY);
+            if (cached.isEmpty()) {
+                return;
+            }
+            Map<String, Double> actual = new HashMap<>();
+            for (Object[] row : deviceRepository.getTotalPowerConsumptionPerHome()) {
+                actual.put(row[0].toString(), row[1] != null ? ((Number) row[1]).doubleValue() : 0.0);
+            }
+
+            int corrected = 0;
+            for (Map.Entry<Object, Object> entry : cached.entrySet()) {
+                String field = entry.getKey().toString();
+                double expected = actual.getOrDefault(field, 0.0);
+                if (Math.abs(Double.parseDouble(entry.getValue().toString()) - expected) > DRIFT_TOLERANCE) {
+                    stringRedisTemplate.execute(RECONCILE_SCRIPT, List.of(TOTALS_KEY), field, Double.toString(expected));
+                    corrected++;
+                }
+            }
+            log.info("Reconciled {} power totals, corrected {}", cached.size(), corrected);
+        } catch (Exception e) {
+            log.error("Error reconciling power totals", e);
+        }
+    }
+
+    private void increment(Long homeId, double delta) {
+        try {
+            stringRedisTemplate.execute(INCREMENT_SCRIPT, List.of(TOTALS_KEY), homeId.toString(), Double.toString(delta));
+        } catch (Exception e) {
+            log.error("Error applying power delta {} for homeId: {}, dropping total", delta, homeId, e);
+            deleteTotal(homeId);
+        }
+    }
+
+    private void deleteTotal(Long homeId) {
+        try {
+            stringRedisTemplate.opsForHash().delete(TOTALS_KEY, homeId.toString());
+        } catch (Exception e) {
+            log.error("Error removing power total for homeId: {}", homeId, e);
+        }
+    }
+}
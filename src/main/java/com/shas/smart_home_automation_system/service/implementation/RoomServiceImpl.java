@@ -1,17 +1,26 @@
 package com.shas.smart_home_automation_system.service.implementation;
 
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
+import com.shas.smart_home_automation_system.dto.DeviceChangeEventDto;
+import com.shas.smart_home_automation_system.dto.DevicesDeletedEvent;
 import com.shas.smart_home_automation_system.dto.RoomDto;
 import com.shas.smart_home_automation_system.entity.Home;
 import com.shas.smart_home_automation_system.entity.Room;
 import com.shas.smart_home_automation_system.entity.User;
 import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.RoomMapper;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
 import com.shas.smart_home_automation_system.repository.HomeRepository;
 import com.shas.smart_home_automation_system.repository.RoomRepository;
+import com.shas.smart_home_automation_system.service.DeviceEventService;
+import com.shas.smart_home_automation_system.service.PowerConsumptionService;
 import com.shas.smart_home_automation_system.service.RoomService;
 import com.shas.smart_home_automation_system.util.CacheService;
+import com.shas.smart_home_automation_system.util.CacheTags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,12 +35,17 @@ public class RoomServiceImpl implements RoomService {
 
     private final RoomRepository roomRepository;
     private final HomeRepository homeRepository;
+    private final DeviceRepository deviceRepository;
     private final CacheService cacheService;
-    private final ModelMapper modelMapper;
+    private final PowerConsumptionService powerConsumptionService;
+    private final DeviceEventService deviceEventService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final RoomMapper roomMapper;
 
     private static final String CACHE_NAME = "rooms";
     private static final long CACHE_TTL = 10;
     private static final TimeUnit TIME_UNIT = TimeUnit.MINUTES;
+    private static final long PAGE_CACHE_TTL = 5;
 
     private User getAuthenticatedUser() {
         return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -42,23 +56,10 @@ public class RoomServiceImpl implements RoomService {
     public List<RoomDto> getUserRooms() {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
-        String cacheKey = "userRooms:" + userId;
-
-        @SuppressWarnings("unchecked")
-        List<RoomDto> cachedRooms = cacheService.get(CACHE_NAME, cacheKey, List.class);
-        if (cachedRooms != null) {
-            log.info("Returning rooms from cache for userId: {}", userId);
-            return cachedRooms;
-        }
-
-        log.info("Fetching rooms from DB for userId: {}", userId);
-        List<RoomDto> rooms = roomRepository.findByHomeUser(user)
-                .stream()
-                .map(this::convertToDto)
-                .toList();
-
-        cacheService.put(CACHE_NAME, cacheKey, rooms, CACHE_TTL, TIME_UNIT);
-        return rooms;
+        return cacheService.getOrLoad(CACHE_NAME, "userRooms:" + userId, () -> {
+            log.info("Fetching rooms from DB for userId: {}", userId);
+            return roomMapper.toDtoList(roomRepository.findByHomeUser(user));
+        }, CACHE_TTL, TIME_UNIT);
     }
 
     @Override
@@ -66,48 +67,58 @@ public class RoomServiceImpl implements RoomService {
     public List<RoomDto> getHomeRooms(Long homeId) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
-        String cacheKey = "homeRooms:" + homeId + ":user:" + userId;
-
-        @SuppressWarnings("unchecked")
-        List<RoomDto> cachedRooms = cacheService.get(CACHE_NAME, cacheKey, List.class);
-        if (cachedRooms != null) {
-            log.info("Returning rooms from cache for homeId: {} and userId: {}", homeId, userId);
-            return cachedRooms;
-        }
-
-        log.info("Fetching rooms from DB for homeId: {} and userId: {}", homeId, userId);
-        List<RoomDto> rooms = roomRepository.findByHomeIdAndHomeUser(homeId, user)
-                .stream()
-                .map(this::convertToDto)
-                .toList();
-
-        cacheService.put(CACHE_NAME, cacheKey, rooms, CACHE_TTL, TIME_UNIT);
-        return rooms;
+        return cacheService.getOrLoad(CACHE_NAME, "homeRooms:" + homeId + ":user:" + userId, () -> {
+            log.info("Fetching rooms from DB for homeId: {} and userId: {}", homeId, userId);
+            return roomMapper.toDtoList(roomRepository.findByHomeIdAndHomeUser(homeId, user));
+        }, CACHE_TTL, TIME_UNIT);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public RoomDto getRoomById(Long roomId) {
+    public CursorPageDto<RoomDto> getUserRooms(Long after, Integer limit) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
-        String cacheKey = "room:" + roomId + ":user:" + userId;
+        long cursor = CursorPageDto.normalizeCursor(after);
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        List<RoomDto> items = cacheService.getOrLoad(CACHE_NAME, "userRooms:" + userId + ":page:" + cursor + ":" + pageSize, () -> {
+            log.info("Fetching rooms after {} from DB for userId: {}", cursor, userId);
+            return roomMapper.toDtoList(roomRepository.findByHomeUserAndIdGreaterThanOrderByIdAsc(user, cursor, Limit.of(pageSize)));
+        }, PAGE_CACHE_TTL, TIME_UNIT, CacheTags.userRooms(userId));
+        return CursorPageDto.of(items, pageSize, RoomDto::getId);
+    }
 
-        RoomDto cachedRoom = cacheService.get(CACHE_NAME, cacheKey, RoomDto.class);
-        if (cachedRoom != null) {
-            log.info("Returning room {} for user {} from cache", roomId, userId);
-            return cachedRoom;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<RoomDto> getHomeRooms(Long homeId, Long after, Integer limit) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        long cursor = CursorPageDto.normalizeCursor(after);
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        List<RoomDto> items = cacheService.getOrLoad(CACHE_NAME,
+                "homeRooms:" + homeId + ":user:" + userId + ":page:" + cursor + ":" + pageSize, () -> {
+            log.info("Fetching rooms after {} from DB for homeId: {} and userId: {}", cursor, homeId, userId);
+            return roomMapper.toDtoList(roomRepository.findByHomeIdAndHomeUserAndIdGreaterThanOrderByIdAsc(
+                    homeId, user, cursor, Limit.of(pageSize)));
+        }, PAGE_CACHE_TTL, TIME_UNIT, CacheTags.userRooms(userId));
+        return CursorPageDto.of(items, pageSize, RoomDto::getId);
+    }
 
-        log.info("Fetching room {} for user {} from DB", roomId, userId);
-        Room room = roomRepository.findByIdAndHomeUser(roomId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
+    @Override
+    @Transactional(readOnly = true)
+    public RoomDto getRoomById(Long roomId) {
+        User user = getAuthenticatedUser();
+        Long userId = user.getId();
+        return cacheService.getOrLoad(CACHE_NAME, "room:" + roomId + ":user:" + userId, () -> {
+            log.info("Fetching room {} for user {} from DB", roomId, userId);
+            Room room = roomRepository.findByIdAndHomeUser(roomId, user)
+                    .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
 
-        RoomDto roomDto = convertToDto(room);
-        cacheService.put(CACHE_NAME, cacheKey, roomDto, CACHE_TTL, TIME_UNIT);
-        return roomDto;
+            return roomMapper.toDto(room);
+        }, CACHE_TTL, TIME_UNIT);
     }
 
     @Override
+    @Transactional
     public RoomDto createRoom(RoomDto roomDto) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -124,13 +135,15 @@ public class RoomServiceImpl implements RoomService {
 
         Room savedRoom = roomRepository.save(room);
 
-        cacheService.evict(CACHE_NAME, "userRooms:" + userId);
-        cacheService.evict(CACHE_NAME, "homeRooms:" + roomDto.getHomeId() + ":user:" + userId);
+        cacheService.evictMany(CACHE_NAME, List.of("userRooms:" + userId,
+                "homeRooms:" + roomDto.getHomeId() + ":user:" + userId));
+        cacheService.evictTags(CacheTags.userRooms(userId));
 
-        return convertToDto(savedRoom);
+        return roomMapper.toDto(savedRoom);
     }
 
     @Override
+    @Transactional
     public RoomDto updateRoom(Long roomId, RoomDto roomDto) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -144,16 +157,18 @@ public class RoomServiceImpl implements RoomService {
         room.setType(roomDto.getType());
 
         Room updatedRoom = roomRepository.save(room);
-        RoomDto updatedDto = convertToDto(updatedRoom);
+        RoomDto updatedDto = roomMapper.toDto(updatedRoom);
 
         cacheService.put(CACHE_NAME, "room:" + roomId + ":user:" + userId, updatedDto, CACHE_TTL, TIME_UNIT);
-        cacheService.evict(CACHE_NAME, "userRooms:" + userId);
-        cacheService.evict(CACHE_NAME, "homeRooms:" + room.getHome().getId() + ":user:" + userId);
+        cacheService.evictMany(CACHE_NAME, List.of("userRooms:" + userId,
+                "homeRooms:" + room.getHome().getId() + ":user:" + userId));
+        cacheService.evictTags(CacheTags.userRooms(userId));
 
         return updatedDto;
     }
 
     @Override
+    @Transactional
     public void deleteRoom(Long roomId) {
         User user = getAuthenticatedUser();
         Long userId = user.getId();
@@ -161,15 +176,19 @@ public class RoomServiceImpl implements RoomService {
         log.info("Deleting room {} for user {}", roomId, userId);
         Room room = roomRepository.findByIdAndHomeUser(roomId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
+        Long homeId = room.getHome().getId();
+        // the room's devices go with it by cascade
+        double onlinePower = deviceRepository.getTotalPowerConsumptionByRoom(roomId).orElse(0.0);
+        List<Long> deviceIds = deviceRepository.findIdsByRoomId(roomId);
 
         roomRepository.delete(room);
-
-        cacheService.evict(CACHE_NAME, "room:" + roomId + ":user:" + userId);
-        cacheService.evict(CACHE_NAME, "userRooms:" + userId);
-        cacheService.evict(CACHE_NAME, "homeRooms:" + room.getHome().getId() + ":user:" + userId);
-    }
-
-    private RoomDto convertToDto(Room room) {
-        return modelMapper.map(room, RoomDto.class);
+        powerConsumptionService.applyDelta(homeId, -onlinePower);
+
+        cacheService.evictMany(CACHE_NAME, List.of("room:" + roomId + ":user:" + userId, "userRooms:" + userId,
+                "homeRooms:" + homeId + ":user:" + userId));
+        cacheService.evictTags(CacheTags.userRooms(userId), CacheTags.userDevices(userId),
+                CacheTags.homeDevices(homeId));
+        deviceEventService.publish(DeviceChangeEventDto.deleted(homeId, deviceIds));
+        applicationEventPublisher.publishEvent(new DevicesDeletedEvent(homeId, deviceIds));
     }
 }
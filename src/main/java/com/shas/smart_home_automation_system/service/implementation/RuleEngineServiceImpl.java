@@ -0,0 +1,407 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.AutomationRuleDto;
+import com.shas.smart_home_automation_system.dto.DeviceStatusChangedEvent;
+import com.shas.smart_home_automation_system.dto.DevicesDeletedEvent;
+import com.shas.smart_home_automation_system.dto.MetricReadingDto;
+import com.shas.smart_home_automation_system.entity.AutomationRule;
+import com.shas.smart_home_automation_system.enums.AutomationTriggerType;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.repository.AutomationRuleRepository;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
+import com.shas.smart_home_automation_system.service.DeviceService;
+import com.shas.smart_home_automation_system.service.RuleEngineService;
+import com.shas.smart_home_automation_system.util.AutomationRuleIndex;
+import com.shas.smart_home_automation_system.util.AutomationRuleIndex.CompiledRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Evaluates DEVICE_STATUS and METRIC_THRESHOLD automation rules against status changes and metric
+ * readings made on this node. Each home's enabled rules are compiled into an {@link AutomationRuleIndex}
+ * that is swapped whole when its rules change, here and on peers via Redis pub/sub.
+ * <p>
+ * Evaluation and reloads are serialized per home through a bounded mailbox and run on a shared worker
+ * pool, so a reload never races another reload or an evaluation of the same home; a mailbox processes
+ * a limited burst before yielding its worker, so one busy home cannot starve the others. Rule actions
+ * do not trigger further rules, which rules out automation loops.
+ */
+@Slf4j
+@Service
+public class RuleEngineServiceImpl implements RuleEngineService, MessageListener {
+
+    public static final String RELOAD_CHANNEL = "smarthome:automation:reload";
+
+    private static final Set<AutomationTriggerType> EVENT_TRIGGERS =
+            Set.of(AutomationTriggerType.DEVICE_STATUS, AutomationTriggerType.METRIC_THRESHOLD);
+
+    private final AutomationRuleRepository ruleRepository;
+    private final DeviceRepository deviceRepository;
+    private final DeviceService deviceService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int mailboxCapacity;
+    private final int burst;
+
+    private final Map<Long, AutomationRuleIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> triggerDeviceHomes = new ConcurrentHashMap<>();
+    private final Map<Long, HomeMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Counter firedRules;
+    private final Counter droppedEvents;
+
+    public RuleEngineServiceImpl(AutomationRuleRepository ruleRepository,
+                                 DeviceRepository deviceRepository,
+                                 DeviceService deviceService,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.automation.workers:4}") int workerCount,
+                                 @Value("${app.automation.mailbox-capacity:1000}") int mailboxCapacity,
+                                 @Value("${app.automation.burst:32}") int burst) {
+        this.ruleRepository = ruleRepository;
+        this.deviceRepository = deviceRepository;
+        this.deviceService = deviceService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.mailboxCapacity = mailboxCapacity;
+        this.burst = burst;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "rule-engine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.firedRules = Counter.builder("smarthome.automation.rules.fired").register(meterRegistry);
+        this.droppedEvents = Counter.builder("smarthome.automation.events.dropped").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void listen() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RELOAD_CHANNEL));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        try {
+            Map<Long, List<AutomationRule>> rulesByHome = new HashMap<>();
+            for (AutomationRule rule : ruleRepository.findByEnabledTrueAndTriggerTypeIn(EVENT_TRIGGERS)) {
+                rulesByHome.computeIfAbsent(rule.getHome().getId(), id -> new ArrayList<>()).add(rule);
+            }
+            Map<Long, Map<Object, Long>> references = resolveReferences(rulesByHome.values().stream()
+                    .flatMap(List::stream).toList());
+            rulesByHome.forEach((homeId, rules) -> {
+                AutomationRuleIndex index = compileHome(homeId, rules, references.getOrDefault(homeId, Map.of()));
+                submitReload(homeId, () -> install(homeId, index));
+            });
+            log.info("Loaded automation rules for {} homes", rulesByHome.size());
+        } catch (Exception e) {
+            log.error("Error loading automation rules", e);
+        }
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(DeviceStatusChangedEvent event) {
+        AutomationRuleIndex index = indexes.get(event.getHomeId());
+        if (index == null || !index.hasStatusRules(event.getDeviceId())) {
+            return;
+        }
+        submit(event.getHomeId(), () -> execute(event.getHomeId(),
+                indexes.getOrDefault(event.getHomeId(), AutomationRuleIndex.EMPTY)
+                        .matchStatus(event.getDeviceId(), event.getOldStatus(), event.getNewStatus())));
+    }
+
+    @Override
+    public void onMetricReadings(List<MetricReadingDto> readings) {
+        Map<Long, List<MetricReadingDto>> byHome = null;
+        for (MetricReadingDto reading : readings) {
+            Long homeId = triggerDeviceHomes.get(reading.getDeviceId());
+            if (homeId == null || !indexes.getOrDefault(homeId, AutomationRuleIndex.EMPTY)
+                    .hasMetricRules(reading.getDeviceId(), reading.getMetricType())) {
+                continue;
+            }
+            if (byHome == null) {
+                byHome = new HashMap<>();
+            }
+            byHome.computeIfAbsent(homeId, id -> new ArrayList<>()).add(reading);
+        }
+        if (byHome == null) {
+            return;
+        }
+        byHome.forEach((homeId, homeReadings) -> submit(homeId, () -> {
+            AutomationRuleIndex index = indexes.getOrDefault(homeId, AutomationRuleIndex.EMPTY);
+            List<CompiledRule> matched = new ArrayList<>();
+            for (MetricReadingDto reading : homeReadings) {
+                matched.addAll(index.matchMetric(reading.getDeviceId(), reading.getMetricType(), reading.getValue()));
+            }
+            execute(homeId, matched);
+        }));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesDeleted(DevicesDeletedEvent event) {
+        reloadAndNotifyPeers(event.getHomeId());
+    }
+
+    @Override
+    public void reloadHome(Long homeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadAndNotifyPeers(homeId);
+                }
+            });
+        } else {
+            reloadAndNotifyPeers(homeId);
+        }
+    }
+
+    @Override
+    public void validate(AutomationRuleDto rule) {
+        if (!EVENT_TRIGGERS.contains(rule.getTriggerType())) {
+            return;
+        }
+        Collection<Object> referenced = new ArrayList<>();
+        referenced.add(rule.getTriggerCondition().get("deviceId"));
+        if (rule.getActionConfig().get("devices") instanceof Collection<?> devices) {
+            referenced.addAll(devices);
+        }
+        Map<Object, Long> references = lookupReferences(referenced).getOrDefault(rule.getHomeId(), Map.of());
+        AutomationRuleIndex.compile(rule.getId(), rule.getHomeId(), rule.getName(), rule.getTriggerType(),
+                rule.getTriggerCondition(), rule.getActionConfig(), reference -> references.get(referenceKey(reference)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        // reloads query the database, so they run off the Redis listener thread
+        Long homeId = Long.parseLong(parts[1]);
+        submitReload(homeId, () -> reload(homeId));
+    }
+
+    private void reloadAndNotifyPeers(Long homeId) {
+        submitReload(homeId, () -> reload(homeId));
+        try {
+            stringRedisTemplate.convertAndSend(RELOAD_CHANNEL, instanceId + "|" + homeId);
+        } catch (Exception e) {
+            log.error("Error publishing automation rule reload for homeId: {}", homeId, e);
+        }
+    }
+
+    private void reload(Long homeId) {
+        List<AutomationRule> rules = ruleRepository.findByHomeIdAndEnabledTrueAndTriggerTypeIn(homeId, EVENT_TRIGGERS);
+        Map<Object, Long> references = resolveReferences(rules).getOrDefault(homeId, Map.of());
+        install(homeId, compileHome(homeId, rules, references));
+        log.debug("Reloaded {} automation rules for homeId: {}", rules.size(), homeId);
+    }
+
+    private AutomationRuleIndex compileHome(Long homeId, List<AutomationRule> rules, Map<Object, Long> references) {
+        Function<Object, Long> resolver = reference -> references.get(referenceKey(reference));
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (AutomationRule rule : rules) {
+            try {
+                compiled.add(AutomationRuleIndex.compile(rule.getId(), homeId, rule.getName(), rule.getTriggerType(),
+                        rule.getTriggerCondition(), rule.getActionConfig(), resolver));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping automation rule {} of homeId: {}: {}", rule.getId(), homeId, e.getMessage());
+            }
+        }
+        return compiled.isEmpty() ? AutomationRuleIndex.EMPTY : AutomationRuleIndex.of(compiled);
+    }
+
+    /**
+     * Runs on the home's mailbox, so installs of one home are ordered and never overlap its evaluation.
+     */
+    private synchronized void install(Long homeId, AutomationRuleIndex index) {
+        AutomationRuleIndex current = indexes.get(homeId);
+        if (current != null) {
+            index.inheritState(current);
+        }
+        AutomationRuleIndex previous = index == AutomationRuleIndex.EMPTY
+                ? indexes.remove(homeId)
+                : indexes.put(homeId, index);
+        if (previous != null) {
+            previous.triggerDevices().forEach(deviceId -> triggerDeviceHomes.remove(deviceId, homeId));
+        }
+        index.triggerDevices().forEach(deviceId -> triggerDeviceHomes.put(deviceId, homeId));
+    }
+
+    /**
+     * Resolves every device referenced by the rules' conditions and actions in one query, per home.
+     */
+    private Map<Long, Map<Object, Long>> resolveReferences(List<AutomationRule> rules) {
+        Collection<Object> referenced = new ArrayList<>();
+        for (AutomationRule rule : rules) {
+            referenced.add(rule.getTriggerCondition() != null ? rule.getTriggerCondition().get("deviceId") : null);
+            if (rule.getActionConfig() != null && rule.getActionConfig().get("devices") instanceof Collection<?> devices) {
+                referenced.addAll(devices);
+            }
+        }
+        return lookupReferences(referenced);
+    }
+
+    private Map<Long, Map<Object, Long>> lookupReferences(Collection<Object> referenced) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> deviceIds = new HashSet<>();
+        for (Object reference : referenced) {
+            Object key = referenceKey(reference);
+            if (key instanceof Long id) {
+                ids.add(id);
+            } else if (key instanceof String deviceId) {
+                deviceIds.add(deviceId);
+            }
+        }
+        Map<Long, Map<Object, Long>> byHome = new HashMap<>();
+        if (ids.isEmpty() && deviceIds.isEmpty()) {
+            return byHome;
+        }
+        for (Object[] row : deviceRepository.findReferences(ids.isEmpty() ? Set.of(-1L) : ids,
+                deviceIds.isEmpty() ? Set.of("") : deviceIds)) {
+            Long id = (Long) row[0];
+            Map<Object, Long> homeReferences = byHome.computeIfAbsent((Long) row[1], homeId -> new HashMap<>());
+            homeReferences.put(id, id);
+            if (row[2] != null) {
+                homeReferences.put(row[2], id);
+            }
+        }
+        return byHome;
+    }
+
+    /**
+     * Numbers refer to devices by primary key, strings by their device id.
+     */
+    private static Object referenceKey(Object reference) {
+        if (reference instanceof Number number) {
+            return number.longValue();
+        }
+        return reference != null ? reference.toString() : null;
+    }
+
+    private void execute(Long homeId, List<CompiledRule> matched) {
+        if (matched.isEmpty()) {
+            return;
+        }
+        // one set-based update per target status, however many rules matched
+        Map<DeviceStatus, Set<Long>> targets = new EnumMap<>(DeviceStatus.class);
+        Map<DeviceStatus, Set<String>> ruleNames = new EnumMap<>(DeviceStatus.class);
+        for (CompiledRule rule : matched) {
+            log.info("Automation rule {} '{}' fired for homeId: {}", rule.getId(), rule.getName(), homeId);
+            targets.computeIfAbsent(rule.getTargetStatus(), status -> new LinkedHashSet<>())
+                    .addAll(rule.getTargetDeviceIds());
+            ruleNames.computeIfAbsent(rule.getTargetStatus(), status -> new LinkedHashSet<>()).add(rule.getName());
+        }
+        firedRules.increment(matched.size());
+        targets.forEach((status, deviceIds) -> deviceService.applyAutomationStatus(homeId, deviceIds, status,
+                "Automation rule: " + String.join(", ", ruleNames.get(status))));
+    }
+
+    private void submit(Long homeId, Runnable evaluation) {
+        mailboxes.computeIfAbsent(homeId, HomeMailbox::new).submit(evaluation, true);
+    }
+
+    /**
+     * Reloads bypass the mailbox capacity: dropping one would leave a stale index until the next edit.
+     */
+    private void submitReload(Long homeId, Runnable reload) {
+        mailboxes.computeIfAbsent(homeId, HomeMailbox::new).submit(reload, false);
+    }
+
+    private final class HomeMailbox implements Runnable {
+
+        private final Long homeId;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private HomeMailbox(Long homeId) {
+            this.homeId = homeId;
+        }
+
+        void submit(Runnable evaluation, boolean droppable) {
+            if (size.incrementAndGet() > mailboxCapacity && droppable) {
+                size.decrementAndGet();
+                droppedEvents.increment();
+                log.warn("Automation mailbox of homeId: {} is full, dropping event", homeId);
+                return;
+            }
+            queue.add(evaluation);
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            Runnable evaluation;
+            int processed = 0;
+            while (processed < burst && (evaluation = queue.poll()) != null) {
+                size.decrementAndGet();
+                processed++;
+                try {
+                    evaluation.run();
+                } catch (Exception e) {
+                    log.error("Error processing automation rules for homeId: {}", homeId, e);
+                }
+            }
+            scheduled.set(false);
+            // requeue behind other homes instead of draining a busy home in one go
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.SceneActionResultDto;
+import com.shas.smart_home_automation_system.dto.SceneDto;
+import com.shas.smart_home_automation_system.dto.SceneExecutionResultDto;
+import com.shas.smart_home_automation_system.entity.Scene;
+import com.shas.smart_home_automation_system.entity.SceneAction;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.enums.SceneActionOutcome;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.SceneMapper;
+import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.repository.SceneRepository;
+import com.shas.smart_home_automation_system.service.DeviceService;
+import com.shas.smart_home_automation_system.service.SceneService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Runs a scene's actions in execution order. There is no device transport yet, so running an action
+ * only resolves it to a target status; the resulting statuses are written together at the end in a
+ * single batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SceneServiceImpl implements SceneService {
+
+    private final SceneRepository sceneRepository;
+    private final HomeRepository homeRepository;
+    private final DeviceService deviceService;
+    private final SceneMapper sceneMapper;
+
+    private User getAuthenticatedUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SceneDto> getHomeScenes(Long homeId) {
+        User user = getAuthenticatedUser();
+        log.info("Fetching scenes of home {} for user {}", homeId, user.getId());
+        if (!homeRepository.existsByIdAndUser(homeId, user)) {
+            throw new ResourceNotFoundException("Home not found with id: " + homeId);
+        }
+        return sceneMapper.toDtoList(sceneRepository.findByHomeIdAndHomeUserOrderByIdAsc(homeId, user));
+    }
+
+    /**
+     * Deliberately not transactional: no connection is held while the actions run, and the final write
+     * opens its own read-write transaction.
+     */
+    @Override
+    public SceneExecutionResultDto executeScene(Long sceneId) {
+        User user = getAuthenticatedUser();
+        long started = System.nanoTime();
+        Scene scene = sceneRepository.findWithActionsByIdAndHomeUser(sceneId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Scene not found with id: " + sceneId));
+        if (Boolean.FALSE.equals(scene.getEnabled())) {
+            throw new IllegalArgumentException("Scene is disabled: " + sceneId);
+        }
+        Long homeId = scene.getHome().getId();
+        log.info("Executing scene {} with {} actions for user {}", sceneId, scene.getActions().size(), user.getId());
+
+        NavigableMap<Integer, List<SceneAction>> stages = new TreeMap<>();
+        for (SceneAction action : scene.getActions()) {
+            stages.computeIfAbsent(Objects.requireNonNullElse(action.getExecutionOrder(), 0), order -> new ArrayList<>())
+                    .add(action);
+        }
+
+        List<SceneActionResultDto> results = new ArrayList<>(scene.getActions().size());
+        // later stages win when several actions target the same device
+        Map<Long, DeviceStatus> targets = new LinkedHashMap<>();
+        for (List<SceneAction> stage : stages.values()) {
+            for (SceneAction action : stage) {
+                SceneActionResultDto result = runAction(action, homeId);
+                results.add(result);
+                if (result.getOutcome() == SceneActionOutcome.APPLIED) {
+                    targets.put(result.getDeviceId(), result.getTargetStatus());
+                }
+            }
+        }
+
+        long writeStarted = System.nanoTime();
+        List<DeviceDto> updated = targets.isEmpty()
+                ? List.of()
+                : deviceService.updateDeviceStatuses(targets, "Scene: " + scene.getName());
+        long finished = System.nanoTime();
+
+        log.info("Executed scene {} in {} stages, updated {} devices", sceneId, stages.size(), updated.size());
+        return new SceneExecutionResultDto(sceneId, homeId, stages.size(), updated.size(), results,
+                millis(finished - writeStarted), millis(finished - started));
+    }
+
+    private static SceneActionResultDto runAction(SceneAction action, Long homeId) {
+        SceneActionOutcome outcome;
+        DeviceStatus targetStatus = null;
+        String message = null;
+        try {
+            if (!homeId.equals(action.getDevice().getHome().getId())) {
+                throw new IllegalArgumentException("Device is not in the scene's home");
+            }
+            targetStatus = targetStatus(action);
+            outcome = targetStatus != null ? SceneActionOutcome.APPLIED : SceneActionOutcome.SKIPPED;
+            if (targetStatus == null) {
+                message = "Unsupported action type: " + action.getActionType();
+            }
+        } catch (Exception e) {
+            outcome = SceneActionOutcome.FAILED;
+            message = e.getMessage();
+        }
+        return new SceneActionResultDto(action.getId(), action.getDevice().getId(), action.getActionType(),
+                action.getExecutionOrder(), outcome, targetStatus, message);
+    }
+
+    private static DeviceStatus targetStatus(SceneAction action) {
+        return switch (action.getActionType()) {
+            case "TURN_ON" -> DeviceStatus.ONLINE;
+            case "TURN_OFF" -> DeviceStatus.OFFLINE;
+            case "SET_STATUS" -> {
+                Object status = action.getActionConfig() != null ? action.getActionConfig().get("status") : null;
+                try {
+                    yield DeviceStatus.valueOf(String.valueOf(status));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown device status: " + status);
+                }
+            }
+            default -> null;
+        };
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -1,14 +1,22 @@
 package com.shas.smart_home_automation_system.service.implementation;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
 import com.shas.smart_home_automation_system.dto.UserDto;
 import com.shas.smart_home_automation_system.entity.User;
 import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.UserMapper;
 import com.shas.smart_home_automation_system.repository.UserRepository;
 import com.shas.smart_home_automation_system.service.UserService;
 import com.shas.smart_home_automation_system.util.CacheService;
+import com.shas.smart_home_automation_system.util.CacheTags;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +24,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -26,7 +36,14 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final CacheService cacheService;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final long PAGE_CACHE_TTL = 5;
+    private static final int EXPORT_BATCH_SIZE = 500;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -44,34 +61,55 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserDto> getAllUsers() {
-        String cacheKey = "all";
-
-        @SuppressWarnings("unchecked")
-        List<UserDto> cachedUsers = cacheService.get("users", cacheKey, List.class);
-        if (cachedUsers != null) return cachedUsers;
-        log.info("Fetching all users from database...");
-        List<UserDto> users = userRepository.findAll().stream()
-                .map(this::convertToDto)
-                .toList();
-        cacheService.put("users", cacheKey, users, 10, TimeUnit.MINUTES);
-        return users;
+    public CursorPageDto<UserDto> getUsers(Long after, Integer limit) {
+        long cursor = CursorPageDto.normalizeCursor(after);
+        int pageSize = CursorPageDto.normalizeLimit(limit);
+        List<UserDto> items = cacheService.getOrLoad("users", "page:" + cursor + ":" + pageSize, () -> {
+            log.info("Fetching users after {} from database...", cursor);
+            return userMapper.toDtoList(userRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize)));
+        }, PAGE_CACHE_TTL, TimeUnit.MINUTES, CacheTags.userPages());
+        return CursorPageDto.of(items, pageSize, UserDto::getId);
+    }
+
+    /**
+     * Runs on the async dispatch thread, where an open-in-view EntityManager can outlive the request;
+     * the persistence context is cleared after each batch so exported users do not accumulate in it.
+     */
+    @Override
+    public void exportUsers(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        long cursor = 0;
+        int exported = 0;
+        List<User> batch;
+        do {
+            batch = userRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(EXPORT_BATCH_SIZE));
+            for (User user : batch) {
+                outputStream.write(writer.writeValueAsBytes(userMapper.toDto(user)));
+                outputStream.write('\n');
+            }
+            if (!batch.isEmpty()) {
+                cursor = batch.getLast().getId();
+                exported += batch.size();
+            }
+            entityManager.clear();
+            outputStream.flush();
+        } while (batch.size() == EXPORT_BATCH_SIZE);
+        log.info("Exported {} users", exported);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
-        UserDto cachedUser = cacheService.get("user", id.toString(), UserDto.class);
-        if (cachedUser != null) return cachedUser;
-        log.info("Fetching user by ID: {}", id);
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        UserDto dto = convertToDto(user);
-        cacheService.put("user", id.toString(), dto, 10, TimeUnit.MINUTES);
-        return dto;
+        return cacheService.getOrLoad("user", id.toString(), () -> {
+            log.info("Fetching user by ID: {}", id);
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+            return userMapper.toDto(user);
+        }, 10, TimeUnit.MINUTES);
     }
 
     @Override
+    @Transactional
     public UserDto updateUser(UserDto userDto) {
         User currentUser = (User) SecurityContextHolder
                 .getContext()
@@ -93,27 +131,24 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
-        UserDto dto = convertToDto(updatedUser);
+        UserDto dto = userMapper.toDto(updatedUser);
 
         cacheService.put("user", String.valueOf(currentUser.getId()), dto, 10, TimeUnit.MINUTES);
-        cacheService.evict("users", "all");
+        cacheService.evictTags(CacheTags.userPages());
 
         return dto;
     }
 
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
         cacheService.evict("user", id.toString());
-        cacheService.evict("users", "all");
+        cacheService.evictTags(CacheTags.userPages());
         log.info("Deleted user with id {}", id);
     }
-
-    private UserDto convertToDto(User user) {
-        return modelMapper.map(user, UserDto.class);
-    }
 }
@@ -0,0 +1,245 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.shas.smart_home_automation_system.enums.AutomationTriggerType;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+
+/**
+ * Immutable index of one home's event-driven automation rules. Conditions are compiled to predicates
+ * once and bucketed by trigger device (status rules) or by trigger device and metric type (metric
+ * rules), so evaluating an event only touches the rules it can match.
+ */
+public final class AutomationRuleIndex {
+
+    public static final AutomationRuleIndex EMPTY = new AutomationRuleIndex(Map.of(), Map.of());
+
+    private final Map<Long, List<CompiledRule>> statusRules;
+    private final Map<String, List<CompiledRule>> metricRules;
+
+    private AutomationRuleIndex(Map<Long, List<CompiledRule>> statusRules, Map<String, List<CompiledRule>> metricRules) {
+        this.statusRules = statusRules;
+        this.metricRules = metricRules;
+    }
+
+    public static AutomationRuleIndex of(Collection<CompiledRule> rules) {
+        Map<Long, List<CompiledRule>> statusRules = new HashMap<>();
+        Map<String, List<CompiledRule>> metricRules = new HashMap<>();
+        for (CompiledRule rule : rules) {
+            if (rule.metricType == null) {
+                statusRules.computeIfAbsent(rule.triggerDeviceId, id -> new ArrayList<>()).add(rule);
+            } else {
+                metricRules.computeIfAbsent(metricKey(rule.triggerDeviceId, rule.metricType), key -> new ArrayList<>())
+                        .add(rule);
+            }
+        }
+        return new AutomationRuleIndex(Map.copyOf(statusRules), Map.copyOf(metricRules));
+    }
+
+    /**
+     * Compiles a DEVICE_STATUS or METRIC_THRESHOLD rule. Device references in the action are resolved
+     * through {@code deviceResolver}, which returns null for devices outside the rule's home.
+     *
+     * @throws IllegalArgumentException if the condition or action is malformed
+     */
+    public static CompiledRule compile(Long ruleId, Long homeId, String name, AutomationTriggerType triggerType,
+                                       Map<String, Object> condition, Map<String, Object> action,
+                                       Function<Object, Long> deviceResolver) {
+        Long triggerDevice = deviceResolver.apply(required(condition, "deviceId"));
+        if (triggerDevice == null) {
+            throw new IllegalArgumentException("Trigger device not found in home: " + condition.get("deviceId"));
+        }
+
+        Set<Long> targets = new LinkedHashSet<>();
+        if (!(action.get("devices") instanceof Collection<?> devices) || devices.isEmpty()) {
+            throw new IllegalArgumentException("Action must list at least one device");
+        }
+        for (Object reference : devices) {
+            Long deviceId = deviceResolver.apply(reference);
+            if (deviceId == null) {
+                throw new IllegalArgumentException("Action device not found in home: " + reference);
+            }
+            targets.add(deviceId);
+        }
+        DeviceStatus targetStatus = switch (String.valueOf(required(action, "action"))) {
+            case "TURN_ON" -> DeviceStatus.ONLINE;
+            case "TURN_OFF" -> DeviceStatus.OFFLINE;
+            case "SET_STATUS" -> status(required(action, "status"));
+            default -> throw new IllegalArgumentException("Unsupported action: " + action.get("action"));
+        };
+
+        return switch (triggerType) {
+            case DEVICE_STATUS -> {
+                DeviceStatus to = status(required(condition, "status"));
+                DeviceStatus from = condition.get("from") != null ? status(condition.get("from")) : null;
+                yield new CompiledRule(ruleId, homeId, name, triggerDevice, null,
+                        (oldStatus, newStatus) -> newStatus == to && (from == null || oldStatus == from),
+                        null, Set.copyOf(targets), targetStatus);
+            }
+            case METRIC_THRESHOLD -> {
+                String metricType = String.valueOf(required(condition, "metricType"));
+                double threshold = number(required(condition, "value"));
+                DoublePredicate predicate = switch (String.valueOf(required(condition, "operator"))) {
+                    case "GT" -> value -> value > threshold;
+                    case "GTE" -> value -> value >= threshold;
+                    case "LT" -> value -> value < threshold;
+                    case "LTE" -> value -> value <= threshold;
+                    case "EQ" -> value -> value == threshold;
+                    case "NEQ" -> value -> value != threshold;
+                    default -> throw new IllegalArgumentException("Unsupported operator: " + condition.get("operator"));
+                };
+                yield new CompiledRule(ruleId, homeId, name, triggerDevice, metricType, null, predicate,
+                        Set.copyOf(targets), targetStatus);
+            }
+            default -> throw new IllegalArgumentException("Trigger type is not event driven: " + triggerType);
+        };
+    }
+
+    public boolean hasStatusRules(Long deviceId) {
+        return statusRules.containsKey(deviceId);
+    }
+
+    public boolean hasMetricRules(Long deviceId, String metricType) {
+        return metricRules.containsKey(metricKey(deviceId, metricType));
+    }
+
+    public Set<Long> triggerDevices() {
+        Set<Long> devices = new HashSet<>(statusRules.keySet());
+        metricRules.values().forEach(rules -> devices.add(rules.getFirst().triggerDeviceId));
+        return devices;
+    }
+
+    public List<CompiledRule> matchStatus(Long deviceId, DeviceStatus oldStatus, DeviceStatus newStatus) {
+        List<CompiledRule> candidates = statusRules.get(deviceId);
+        if (candidates == null) {
+            return List.of();
+        }
+        List<CompiledRule> matched = new ArrayList<>(candidates.size());
+        for (CompiledRule rule : candidates) {
+            if (rule.statusPredicate.test(oldStatus, newStatus)) {
+                matched.add(rule);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Rules whose threshold became satisfied with this reading. A rule fires when its condition turns
+     * true and not again until a reading has made it false, so a sustained breach triggers once.
+     * Callers must serialize evaluation per home.
+     */
+    public List<CompiledRule> matchMetric(Long deviceId, String metricType, double value) {
+        List<CompiledRule> candidates = metricRules.get(metricKey(deviceId, metricType));
+        if (candidates == null) {
+            return List.of();
+        }
+        List<CompiledRule> matched = new ArrayList<>(candidates.size());
+        for (CompiledRule rule : candidates) {
+            boolean satisfied = rule.metricPredicate.test(value);
+            if (satisfied && !rule.satisfied) {
+                matched.add(rule);
+            }
+            rule.satisfied = satisfied;
+        }
+        return matched;
+    }
+
+    /**
+     * Carries each metric rule's satisfied state over from the index this one replaces, matched by
+     * rule id, so a threshold that is already breached does not fire again because the home's rules
+     * were reloaded. Callers must serialize this with evaluation of the home.
+     */
+    public void inheritState(AutomationRuleIndex previous) {
+        Map<Long, CompiledRule> previousRules = new HashMap<>();
+        previous.metricRules.values().forEach(rules -> rules.forEach(rule -> previousRules.put(rule.id, rule)));
+        if (previousRules.isEmpty()) {
+            return;
+        }
+        for (List<CompiledRule> rules : metricRules.values()) {
+            for (CompiledRule rule : rules) {
+                CompiledRule replaced = previousRules.get(rule.id);
+                if (replaced != null) {
+                    rule.satisfied = replaced.satisfied;
+                }
+            }
+        }
+    }
+
+    private static String metricKey(Long deviceId, String metricType) {
+        return deviceId + ":" + metricType;
+    }
+
+    private static Object required(Map<String, Object> values, String key) {
+        Object value = values != null ? values.get(key) : null;
+        if (value == null) {
+            throw new IllegalArgumentException("Missing '" + key + "'");
+        }
+        return value;
+    }
+
+    private static DeviceStatus status(Object value) {
+        try {
+            return DeviceStatus.valueOf(String.valueOf(value));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown device status: " + value);
+        }
+    }
+
+    private static double number(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Threshold is not a number: " + value);
+        }
+    }
+
+    public static final class CompiledRule {
+        @Getter
+        private final Long id;
+        @Getter
+        private final Long homeId;
+        @Getter
+        private final String name;
+        private final Long triggerDeviceId;
+        private final String metricType;
+        private final StatusPredicate statusPredicate;
+        private final DoublePredicate metricPredicate;
+        @Getter
+        private final Set<Long> targetDeviceIds;
+        @Getter
+        private final DeviceStatus targetStatus;
+        private boolean satisfied;
+
+        private CompiledRule(Long id, Long homeId, String name, Long triggerDeviceId, String metricType,
+                             StatusPredicate statusPredicate, DoublePredicate metricPredicate,
+                             Set<Long> targetDeviceIds, DeviceStatus targetStatus) {
+            this.id = id;
+            this.homeId = homeId;
+            this.name = name;
+            this.triggerDeviceId = triggerDeviceId;
+            this.metricType = metricType;
+            this.statusPredicate = statusPredicate;
+            this.metricPredicate = metricPredicate;
+            this.targetDeviceIds = targetDeviceIds;
+            this.targetStatus = targetStatus;
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatusPredicate {
+        boolean test(DeviceStatus oldStatus, DeviceStatus newStatus);
+    }
+}
@@ -0,0 +1,127 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact cache value format: a 4 byte header (magic, flags, registered type id) followed by
+ * the value encoded as Smile, LZ4-compressed when it is larger than the configured threshold.
+ * Types that are not in the {@link CacheTypeRegistry} are written through the fallback serializer,
+ * which is also used to read entries written before this format existed.
+ */
+public class BinaryCacheCodec implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xB1;
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_SIZE = 4;
+    private static final short FALLBACK_TYPE = 0;
+
+    private final CacheTypeRegistry typeRegistry;
+    private final RedisSerializer<Object> fallback;
+    private final ObjectMapper smileMapper;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    public BinaryCacheCodec(CacheTypeRegistry typeRegistry, RedisSerializer<Object> fallback,
+                            boolean compressionEnabled, int compressionThreshold) {
+        this.typeRegistry = typeRegistry;
+        this.fallback = fallback;
+        this.smileMapper = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+        this.compressionThreshold = compressionEnabled ? compressionThreshold : Integer.MAX_VALUE;
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Short typeId = typeRegistry.idFor(value);
+        byte[] payload;
+        try {
+            payload = typeId != null ? smileMapper.writeValueAsBytes(value) : fallback.serialize(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value of type " + value.getClass().getName(), e);
+        }
+        if (payload == null) {
+            payload = new byte[0];
+        }
+        short id = typeId != null ? typeId : FALLBACK_TYPE;
+
+        if (payload.length > compressionThreshold) {
+            int maxLength = compressor.maxCompressedLength(payload.length);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + Integer.BYTES + maxLength);
+            writeHeader(buffer, FLAG_LZ4, id);
+            buffer.putInt(payload.length);
+            int compressedLength = compressor.compress(payload, 0, payload.length,
+                    buffer.array(), HEADER_SIZE + Integer.BYTES, maxLength);
+            return Arrays.copyOf(buffer.array(), HEADER_SIZE + Integer.BYTES + compressedLength);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        writeHeader(buffer, (byte) 0, id);
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get();
+        byte flags = buffer.get();
+        short typeId = buffer.getShort();
+
+        byte[] payload;
+        int offset;
+        int length;
+        if ((flags & FLAG_LZ4) != 0) {
+            int originalLength = buffer.getInt();
+            payload = new byte[originalLength];
+            decompressor.decompress(bytes, HEADER_SIZE + Integer.BYTES, payload, 0, originalLength);
+            offset = 0;
+            length = originalLength;
+        } else {
+            payload = bytes;
+            offset = HEADER_SIZE;
+            length = bytes.length - HEADER_SIZE;
+        }
+
+        if (typeId == FALLBACK_TYPE) {
+            return fallback.deserialize(Arrays.copyOfRange(payload, offset, offset + length));
+        }
+        JavaType type = typeRegistry.typeFor(typeId);
+        if (type == null) {
+            throw new SerializationException("Unknown cache type id: " + typeId);
+        }
+        try {
+            return smileMapper.readValue(payload, offset, length, type);
+        } catch (IOException e) {
+            throw new SerializationException("Could not decode cache value of type " + type, e);
+        }
+    }
+
+    private void writeHeader(ByteBuffer buffer, byte flags, short typeId) {
+        buffer.put(MAGIC);
+        buffer.put(flags);
+        buffer.putShort(typeId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.shas.smart_home_automation_system.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free multi-producer buffer with a hard capacity, drained in batches by a background writer.
+ * Capacity is reserved with a CAS before items are enqueued, so a batch is either accepted whole or
+ * rejected, and producers never block.
+ */
+public class BoundedBatchBuffer<T> {
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    public BoundedBatchBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public boolean offer(T item) {
+        if (!reserve(1)) {
+            return false;
+        }
+        queue.add(item);
+        return true;
+    }
+
+    public boolean offerAll(Collection<? extends T> items) {
+        if (items.isEmpty()) {
+            return true;
+        }
+        if (!reserve(items.size())) {
+            return false;
+        }
+        queue.addAll(items);
+        return true;
+    }
+
+    public List<T> drain(int maxItems) {
+        List<T> batch = new ArrayList<>(Math.min(maxItems, Math.max(size.get(), 0)));
+        T item;
+        while (batch.size() < maxItems && (item = queue.poll()) != null) {
+            batch.add(item);
+        }
+        size.addAndGet(-batch.size());
+        return batch;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private boolean reserve(int count) {
+        int current;
+        do {
+            current = size.get();
+            if (current + count > capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + count));
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+package com.shas.smart_home_automation_system.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link BoundedBatchBuffer} drained by a single daemon writer thread every flush interval. Each
+ * batch goes to the primary sink; when that throws, the batch is retried once through the fallback
+ * sink, and dropped if there is none or it fails too. Batches are never requeued, so a failing
+ * database cannot fill the buffer. Sinks return how many items they wrote; the rest count as dropped.
+ * <p>
+ * Meters: {@code <prefix>.<items>} counted by result (accepted, rejected, written, dropped),
+ * {@code <prefix>.flush} timing each batch write and {@code <prefix>.buffer.size}.
+ */
+@Slf4j
+public class BufferedBatchWriter<T> {
+
+    private final String name;
+    private final String items;
+    private final BoundedBatchBuffer<T> buffer;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final ToLongFunction<List<T>> sink;
+    private final ToLongFunction<List<T>> fallback;
+
+    private final Counter acceptedItems;
+    private final Counter rejectedItems;
+    private final Counter writtenItems;
+    private final Counter droppedItems;
+    private final Timer flushTimer;
+
+    private ScheduledExecutorService writer;
+
+    /**
+     * @param name     names the writer thread, {@code <name>-writer}
+     * @param items    what the buffer holds, used in meter names and log messages
+     * @param fallback retries a batch the sink failed on, or {@code null} to drop it
+     */
+    public BufferedBatchWriter(String name, String items, int capacity, int batchSize, long flushIntervalMillis,
+                               ToLongFunction<List<T>> sink, ToLongFunction<List<T>> fallback,
+                               MeterRegistry meterRegistry, String metricPrefix) {
+        this.name = name;
+        this.items = items;
+        this.buffer = new BoundedBatchBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.sink = sink;
+        this.fallback = fallback;
+
+        this.acceptedItems = itemsCounter(meterRegistry, metricPrefix, "accepted");
+        this.rejectedItems = itemsCounter(meterRegistry, metricPrefix, "rejected");
+        this.writtenItems = itemsCounter(meterRegistry, metricPrefix, "written");
+        this.droppedItems = itemsCounter(meterRegistry, metricPrefix, "dropped");
+        this.flushTimer = Timer.builder(metricPrefix + ".flush").register(meterRegistry);
+        Gauge.builder(metricPrefix + ".buffer.size", buffer, BoundedBatchBuffer::size)
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the writer thread and writes whatever is still buffered.
+     */
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        flushSafely();
+    }
+
+    /**
+     * Buffers the items whole or not at all; never blocks.
+     */
+    public boolean offerAll(Collection<? extends T> batch) {
+        if (!buffer.offerAll(batch)) {
+            rejectedItems.increment(batch.size());
+            return false;
+        }
+        acceptedItems.increment(batch.size());
+        return true;
+    }
+
+    /**
+     * Writes everything buffered so far on the calling thread.
+     */
+    public synchronized void flush() {
+        List<T> batch;
+        do {
+            batch = buffer.drain(batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public long flushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error flushing {} buffer", items, e);
+        }
+    }
+
+    private void write(List<T> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            long written;
+            if (fallback != null) {
+                try {
+                    written = sink.applyAsLong(batch);
+                } catch (Exception e) {
+                    log.warn("Writing {} {} failed, retrying with the fallback: {}", batch.size(), items, e.getMessage());
+                    written = fallback.applyAsLong(batch);
+                }
+            } else {
+                written = sink.applyAsLong(batch);
+            }
+            writtenItems.increment(written);
+            droppedItems.increment(batch.size() - written);
+            log.debug("Wrote {} of {} {}", written, batch.size(), items);
+        } catch (Exception e) {
+            droppedItems.increment(batch.size());
+            log.error("Dropping {} {} after write failure", batch.size(), items, e);
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private Counter itemsCounter(MeterRegistry meterRegistry, String metricPrefix, String result) {
+        return Counter.builder(metricPrefix + "." + items)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,66 +1,419 @@
 package com.shas.smart_home_automation_system.util;
 
-import lombok.RequiredArgsConstructor;
+import com.shas.smart_home_automation_system.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class CacheService {
 
+    private static final String KEY_PREFIX = "smarthome:";
+    private static final String TAG_PREFIX = KEY_PREFIX + "tag:";
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private static final byte[] TAG_SCRIPT = """
+            redis.call('sadd', KEYS[1], unpack(ARGV, 2))
+            if redis.call('pttl', KEYS[1]) < tonumber(ARGV[1]) then
+                redis.call('pexpire', KEYS[1], ARGV[1])
+            end
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EVICT_TAG_SCRIPT = RedisScript.of("""
+            local members = redis.call('smembers', KEYS[1])
+            for i = 1, #members, 500 do
+                redis.call('del', unpack(members, i, math.min(i + 499, #members)))
+            end
+            redis.call('del', KEYS[1])
+            return members
+            """, List.class);
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> PUT_LIST_ENTRY_SCRIPT = RedisScript.of("""
+            if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then
+                redis.call('hset', KEYS[1], ARGV[2], ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private static final String OPERATIONS_METER = "smarthome.cache.operations";
+    private static final String PAYLOAD_SIZE_METER = "smarthome.cache.payload.size";
+    private static final String HIT = "hit";
+    private static final String MISS = "miss";
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private static final String LIST_MARKER_FIELD = "~loaded";
+    private static final long LOCK_POLL_MILLIS = 25;
+    private static final double LOAD_TIME_SMOOTHING = 0.2;
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearCache nearCache;
+    private final MeterRegistry meterRegistry;
 
-    public void put(String cacheName, String key, Object value, long ttl, TimeUnit timeUnit) {
-        String cacheKey = generateKey(cacheName, key);
-        try {
-            redisTemplate.opsForValue().set(cacheKey, value, ttl, timeUnit);
-            log.debug("Cached data for key: {}", cacheKey);
-        } catch (Exception e) {
-            log.error("Error caching data for key: {}", cacheKey, e);
-        }
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+
+    private final L2Store valueStore = new ValueStore();
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Map<String, Double> averageLoadMillis = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.load-lock.ttl:5s}")
+    private Duration loadLockTtl;
+
+    @Value("${app.cache.load-lock.max-wait:2s}")
+    private Duration loadLockMaxWait;
+
+    @Value("${app.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    public CacheService(RedisTemplate<String, Object> redisTemplate,
+                        StringRedisTemplate stringRedisTemplate,
+                        NearCache nearCache,
+                        MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("smarthome.cache.hit.ratio", nearCache, NearCache::hitRatio)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        Gauge.builder("smarthome.cache.hit.ratio", this, CacheService::l2HitRatio)
+                .tag("tier", "l2")
+                .register(meterRegistry);
+    }
+
+    public void put(String cacheName, String key, Object value, long ttl, TimeUnit timeUnit, String... tags) {
+        afterCommit(() -> putNow(cacheName, key, value, ttl, timeUnit, tags));
+    }
+
+    private void putNow(String cacheName, String key, Object value, long ttl, TimeUnit timeUnit, String... tags) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean stored = store(cacheName, generateKey(cacheName, key), value, ttl, timeUnit, valueStore, tags);
+        recordOperation(sample, cacheName, "put", stored ? SUCCESS : ERROR);
     }
 
     public <T> T get(String cacheName, String key, Class<T> type) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         String cacheKey = generateKey(cacheName, key);
+        Object local = nearCache.get(cacheKey);
+        if (local != null) {
+            recordLookup(cacheName, "l1", HIT);
+            recordOperation(sample, cacheName, "get", HIT);
+            log.debug("Near cache hit for key: {}", cacheKey);
+            return type.cast(local);
+        }
+        recordLookup(cacheName, "l1", MISS);
+        String outcome = MISS;
         try {
             Object value = redisTemplate.opsForValue().get(cacheKey);
             if (value != null) {
+                l2Hits.increment();
+                recordLookup(cacheName, "l2", HIT);
+                recordOperation(sample, cacheName, "get", HIT);
                 log.debug("Cache hit for key: {}", cacheKey);
+                nearCache.put(cacheName, cacheKey, value, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
                 return type.cast(value);
             }
         } catch (Exception e) {
+            outcome = ERROR;
             log.error("Error retrieving cached data for key: {}", cacheKey, e);
         }
+        l2Misses.increment();
+        recordLookup(cacheName, "l2", MISS);
+        recordOperation(sample, cacheName, "get", outcome);
         log.debug("Cache miss for key: {}", cacheKey);
         return null;
     }
 
+    public void evictMany(String cacheName, Collection<String> keys) {
+        afterCommit(() -> evictManyNow(cacheName, keys));
+    }
+
+    private void evictManyNow(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<String> cacheKeys = keys.stream().map(key -> generateKey(cacheName, key)).toList();
+        try {
+            stringRedisTemplate.delete(cacheKeys);
+            nearCache.invalidateAll(cacheKeys);
+            recordOperation(sample, cacheName, "evict_many", SUCCESS);
+            log.debug("Evicted {} entries for cache: {}", cacheKeys.size(), cacheName);
+        } catch (Exception e) {
+            recordOperation(sample, cacheName, "evict_many", ERROR);
+            log.error("Error evicting {} entries for cache: {}", cacheKeys.size(), cacheName, e);
+        }
+    }
+
+    public <T> T getOrLoad(String cacheName, String key, Supplier<T> loader, long ttl, TimeUnit timeUnit, String... tags) {
+        return getOrLoad(cacheName, key, loader, ttl, timeUnit, valueStore, tags);
+    }
+
+    /**
+     * Like {@link #getOrLoad}, but keeps the list in a Redis hash keyed by entry id so single
+     * entries can later be written through with {@link #putListEntry} and {@link #removeListEntry}
+     * instead of evicting the whole list. A hash has no order, so the list is always returned in
+     * ascending entry id order, whether it was just loaded or read back from Redis.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getOrLoadList(String cacheName, String key, Function<T, Long> idExtractor,
+                                     Supplier<List<T>> loader, long ttl, TimeUnit timeUnit, String... tags) {
+        Supplier<List<T>> sortedLoader = () -> {
+            List<T> loaded = loader.get();
+            return loaded == null ? null : loaded.stream().sorted(Comparator.comparing(idExtractor)).toList();
+        };
+        return getOrLoad(cacheName, key, sortedLoader, ttl, timeUnit,
+                new ListStore((Function<Object, Long>) idExtractor), tags);
+    }
+
+    public void putListEntry(String cacheName, String key, Long entryId, Object value) {
+        afterCommit(() -> putListEntryNow(cacheName, key, entryId, value));
+    }
+
+    private void putListEntryNow(String cacheName, String key, Long entryId, Object value) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String cacheKey = generateKey(cacheName, key);
+        try {
+            byte[] payload = valueSerializer().serialize(value);
+            Long updated = stringRedisTemplate.execute(PUT_LIST_ENTRY_SCRIPT, RedisSerializer.byteArray(),
+                    new GenericToStringSerializer<>(Long.class), List.of(cacheKey),
+                    utf8(LIST_MARKER_FIELD), utf8(entryId.toString()), payload);
+            nearCache.invalidate(cacheKey);
+            boolean written = Long.valueOf(1).equals(updated);
+            if (written) {
+                recordPayloadSize(cacheName, payload.length);
+            }
+            recordOperation(sample, cacheName, "put_entry", written ? HIT : MISS);
+            log.debug("Wrote through entry {} of list {}: {}", entryId, cacheKey, written);
+        } catch (Exception e) {
+            recordOperation(sample, cacheName, "put_entry", ERROR);
+            log.error("Error writing through entry {} of list: {}", entryId, cacheKey, e);
+            evictNow(cacheName, key);
+        }
+    }
+
+    public void removeListEntry(String cacheName, String key, Long entryId) {
+        afterCommit(() -> removeListEntryNow(cacheName, key, entryId));
+    }
+
+    private void removeListEntryNow(String cacheName, String key, Long entryId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String cacheKey = generateKey(cacheName, key);
+        try {
+            stringRedisTemplate.opsForHash().delete(cacheKey, entryId.toString());
+            nearCache.invalidate(cacheKey);
+            recordOperation(sample, cacheName, "remove_entry", SUCCESS);
+            log.debug("Removed entry {} from list {}", entryId, cacheKey);
+        } catch (Exception e) {
+            recordOperation(sample, cacheName, "remove_entry", ERROR);
+            log.error("Error removing entry {} from list: {}", entryId, cacheKey, e);
+            evictNow(cacheName, key);
+        }
+    }
+
+    /**
+     * Loaders read from the primary, since whatever they return stays cached for the full TTL.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getOrLoad(String cacheName, String key, Supplier<T> dbLoader, long ttl, TimeUnit timeUnit,
+                            L2Store l2Store, String... tags) {
+        Supplier<T> loader = () -> ReplicaRoutingDataSource.onPrimary(dbLoader);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String cacheKey = generateKey(cacheName, key);
+        Object local = nearCache.get(cacheKey);
+        if (local != null) {
+            recordLookup(cacheName, "l1", HIT);
+            recordOperation(sample, cacheName, "get_or_load", HIT);
+            return (T) local;
+        }
+        recordLookup(cacheName, "l1", MISS);
+
+        L2Entry entry = L2Entry.MISS;
+        try {
+            entry = l2Store.read(cacheKey);
+        } catch (Exception e) {
+            log.error("Error retrieving cached data for key: {}", cacheKey, e);
+        }
+        Object cached = entry.value();
+        long remainingMillis = entry.remainingMillis();
+
+        if (cached != null) {
+            l2Hits.increment();
+            recordLookup(cacheName, "l2", HIT);
+            if (!shouldRefreshEarly(cacheName, remainingMillis)) {
+                nearCache.put(cacheName, cacheKey, cached,
+                        remainingMillis > 0 ? remainingMillis : Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                recordOperation(sample, cacheName, "get_or_load", HIT);
+                return (T) cached;
+            }
+            log.debug("Refreshing key {} early, {} ms before expiry", cacheKey, remainingMillis);
+        } else {
+            l2Misses.increment();
+            recordLookup(cacheName, "l2", MISS);
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(cacheKey, load);
+        if (inFlight != null) {
+            if (cached != null) {
+                recordOperation(sample, cacheName, "get_or_load", HIT);
+                return (T) cached;
+            }
+            try {
+                Object loadedByPeer = await(cacheKey, inFlight, loader);
+                recordOperation(sample, cacheName, "get_or_load", MISS);
+                return (T) loadedByPeer;
+            } catch (RuntimeException e) {
+                recordOperation(sample, cacheName, "get_or_load", ERROR);
+                throw e;
+            }
+        }
+        try {
+            Object loaded = loadOnce(cacheName, cacheKey, cached, loader, ttl, timeUnit, l2Store, tags);
+            load.complete(loaded);
+            recordOperation(sample, cacheName, "get_or_load", MISS);
+            return (T) loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            recordOperation(sample, cacheName, "get_or_load", ERROR);
+            throw e;
+        } finally {
+            inFlightLoads.remove(cacheKey, load);
+        }
+    }
+
     public void evict(String cacheName, String key) {
+        afterCommit(() -> evictNow(cacheName, key));
+    }
+
+    private void evictNow(String cacheName, String key) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         String cacheKey = generateKey(cacheName, key);
         try {
-            redisTemplate.delete(cacheKey);
+            stringRedisTemplate.delete(cacheKey);
+            nearCache.invalidate(cacheKey);
+            recordOperation(sample, cacheName, "evict", SUCCESS);
             log.debug("Evicted cache for key: {}", cacheKey);
         } catch (Exception e) {
+            recordOperation(sample, cacheName, "evict", ERROR);
             log.error("Error evicting cache for key: {}", cacheKey, e);
         }
     }
 
+    public void evictTags(String... tags) {
+        afterCommit(() -> evictTagsNow(tags));
+    }
+
+    private void evictTagsNow(String... tags) {
+        List<String> evictedKeys = new ArrayList<>();
+        for (String tag : tags) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                List<?> members = stringRedisTemplate.execute(EVICT_TAG_SCRIPT, List.of(TAG_PREFIX + tag));
+                if (members != null) {
+                    members.forEach(member -> evictedKeys.add(member.toString()));
+                }
+                recordOperation(sample, "tag", "evict_tag", SUCCESS);
+            } catch (Exception e) {
+                recordOperation(sample, "tag", "evict_tag", ERROR);
+                log.error("Error evicting cache for tag: {}", tag, e);
+            }
+        }
+        nearCache.invalidateAll(evictedKeys);
+        log.debug("Evicted {} cached entries for tags: {}", evictedKeys.size(), tags);
+    }
+
     public void evictPattern(String cacheName, String pattern) {
+        afterCommit(() -> evictPatternNow(cacheName, pattern));
+    }
+
+    private void evictPatternNow(String cacheName, String pattern) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             String keyPattern = generateKey(cacheName, pattern) + "*";
-            redisTemplate.delete(redisTemplate.keys(keyPattern));
+            ScanOptions options = ScanOptions.scanOptions().match(keyPattern).count(SCAN_BATCH_SIZE).build();
+            List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == SCAN_BATCH_SIZE) {
+                        stringRedisTemplate.delete(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                stringRedisTemplate.delete(batch);
+            }
+            int wildcard = pattern.indexOf('*');
+            nearCache.invalidatePrefix(generateKey(cacheName, wildcard < 0 ? pattern : pattern.substring(0, wildcard)));
+            recordOperation(sample, cacheName, "evict_pattern", SUCCESS);
             log.debug("Evicted cache for pattern: {}", keyPattern);
         } catch (Exception e) {
+            recordOperation(sample, cacheName, "evict_pattern", ERROR);
             log.error("Error evicting cache for pattern: {}", pattern, e);
         }
     }
 
     public boolean exists(String cacheName, String key) {
         String cacheKey = generateKey(cacheName, key);
+        if (nearCache.contains(cacheKey)) {
+            return true;
+        }
         try {
             return redisTemplate.hasKey(cacheKey);
         } catch (Exception e) {
@@ -69,7 +422,281 @@ public class CacheService {
         }
     }
 
+    private boolean store(String cacheName, String cacheKey, Object value, long ttl, TimeUnit timeUnit,
+                          L2Store l2Store, String... tags) {
+        try {
+            recordPayloadSize(cacheName, l2Store.write(cacheKey, value, ttl, timeUnit, tags));
+            nearCache.put(cacheName, cacheKey, value, ttl, timeUnit);
+            nearCache.invalidatePeers(cacheKey);
+            log.debug("Cached data for key: {}", cacheKey);
+            return true;
+        } catch (Exception e) {
+            log.error("Error caching data for key: {}", cacheKey, e);
+            return false;
+        }
+    }
+
+    private Object loadOnce(String cacheName, String cacheKey, Object stale, Supplier<?> loader,
+                            long ttl, TimeUnit timeUnit, L2Store l2Store, String... tags) {
+        String lockKey = cacheKey + ":lock";
+        String token = UUID.randomUUID().toString();
+        Boolean locked = tryLock(lockKey, token);
+        if (Boolean.FALSE.equals(locked)) {
+            if (stale != null) {
+                return stale;
+            }
+            Object loadedByPeer = awaitPeerLoad(cacheKey, l2Store);
+            if (loadedByPeer != null) {
+                nearCache.put(cacheName, cacheKey, loadedByPeer, ttl, timeUnit);
+                return loadedByPeer;
+            }
+            log.debug("Timed out waiting for peer to load key: {}", cacheKey);
+        }
+        try {
+            long start = System.nanoTime();
+            Object loaded = loader.get();
+            recordLoadTime(cacheName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (loaded != null) {
+                store(cacheName, cacheKey, loaded, ttl, timeUnit, l2Store, tags);
+            }
+            return loaded;
+        } finally {
+            if (Boolean.TRUE.equals(locked)) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    private Boolean tryLock(String lockKey, String token) {
+        try {
+            return stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, loadLockTtl);
+        } catch (Exception e) {
+            log.error("Error acquiring load lock: {}", lockKey, e);
+            return null;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.error("Error releasing load lock: {}", lockKey, e);
+        }
+    }
+
+    private Object awaitPeerLoad(String cacheKey, L2Store l2Store) {
+        long deadline = System.nanoTime() + loadLockMaxWait.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(LOCK_POLL_MILLIS);
+                Object value = l2Store.read(cacheKey).value();
+                if (value != null) {
+                    return value;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error waiting for peer to load key: {}", cacheKey, e);
+        }
+        return null;
+    }
+
+    private Object await(String cacheKey, CompletableFuture<Object> inFlight, Supplier<?> loader) {
+        try {
+            return inFlight.get(loadLockMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Timed out waiting for in-flight load of key: {}", cacheKey);
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        }
+    }
+
+    private boolean shouldRefreshEarly(String cacheName, long remainingMillis) {
+        Double loadMillis = averageLoadMillis.get(cacheName);
+        if (loadMillis == null || remainingMillis <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -loadMillis * earlyRefreshBeta * Math.log(random) >= remainingMillis;
+    }
+
+    private void recordLoadTime(String cacheName, long elapsedMillis) {
+        averageLoadMillis.merge(cacheName, (double) elapsedMillis,
+                (average, sample) -> average + LOAD_TIME_SMOOTHING * (sample - average));
+    }
+
+    /**
+     * Queues the tag updates on a connection inside MULTI, so the key joins its tag sets atomically
+     * with the value write and a concurrent tag eviction sees either both or neither.
+     */
+    private static void tag(RedisConnection connection, String cacheKey, long ttlMillis, String... tags) {
+        for (String tag : tags) {
+            connection.scriptingCommands().eval(TAG_SCRIPT, ReturnType.INTEGER, 1,
+                    utf8(TAG_PREFIX + tag), utf8(String.valueOf(ttlMillis)), utf8(cacheKey));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> valueSerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private double l2HitRatio() {
+        long hits = l2Hits.sum();
+        long total = hits + l2Misses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private void recordLookup(String cacheName, String tier, String result) {
+        meterRegistry.counter("smarthome.cache.lookups", "cache", cacheName, "tier", tier, "result", result).increment();
+    }
+
+    /**
+     * Cache mutations issued inside a transaction are applied once it commits, so concurrent readers
+     * cannot re-populate an entry from rows that are not yet visible, and rolled back writes leave the
+     * cache untouched.
+     */
+    private void afterCommit(Runnable mutation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mutation.run();
+                }
+            });
+        } else {
+            mutation.run();
+        }
+    }
+
+    private void recordOperation(Timer.Sample sample, String cacheName, String operation, String outcome) {
+        sample.stop(meterRegistry.timer(OPERATIONS_METER, "cache", cacheName, "operation", operation, "outcome", outcome));
+    }
+
+    private void recordPayloadSize(String cacheName, long bytes) {
+        DistributionSummary.builder(PAYLOAD_SIZE_METER)
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
     private String generateKey(String cacheName, String key) {
-        return String.format("smarthome:%s:%s", cacheName, key);
+        return KEY_PREFIX + cacheName + ":" + key;
+    }
+
+    private interface L2Store {
+
+        L2Entry read(String cacheKey);
+
+        /**
+         * Writes the value and adds its key to the tag sets in one MULTI/EXEC.
+         */
+        long write(String cacheKey, Object value, long ttl, TimeUnit timeUnit, String... tags);
+    }
+
+    private record L2Entry(Object value, long remainingMillis) {
+
+        static final L2Entry MISS = new L2Entry(null, -1);
+    }
+
+    private class ValueStore implements L2Store {
+
+        @Override
+        public L2Entry read(String cacheKey) {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    operations.opsForValue().get(cacheKey);
+                    operations.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+            return new L2Entry(results.get(0), results.get(1) instanceof Long expire ? expire : -1);
+        }
+
+        @Override
+        public long write(String cacheKey, Object value, long ttl, TimeUnit timeUnit, String... tags) {
+            byte[] payload = valueSerializer().serialize(value);
+            byte[] rawKey = utf8(cacheKey);
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                if (tags.length == 0) {
+                    return connection.stringCommands()
+                            .set(rawKey, payload, Expiration.from(ttl, timeUnit), RedisStringCommands.SetOption.upsert());
+                }
+                connection.multi();
+                connection.stringCommands()
+                        .set(rawKey, payload, Expiration.from(ttl, timeUnit), RedisStringCommands.SetOption.upsert());
+                tag(connection, cacheKey, timeUnit.toMillis(ttl), tags);
+                return connection.exec();
+            });
+            return payload.length;
+        }
+    }
+
+    private class ListStore implements L2Store {
+
+        private final Function<Object, Long> idExtractor;
+
+        ListStore(Function<Object, Long> idExtractor) {
+            this.idExtractor = idExtractor;
+        }
+
+        @Override
+        public L2Entry read(String cacheKey) {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    operations.opsForHash().entries(cacheKey);
+                    operations.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+            if (!(results.get(0) instanceof Map<?, ?> entries) || !entries.containsKey(LIST_MARKER_FIELD)) {
+                return L2Entry.MISS;
+            }
+            List<?> values = entries.entrySet().stream()
+                    .filter(entry -> !LIST_MARKER_FIELD.equals(entry.getKey()))
+                    .sorted(Comparator.comparingLong(entry -> Long.parseLong(entry.getKey().toString())))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            return new L2Entry(values, results.get(1) instanceof Long expire ? expire : -1);
+        }
+
+        @Override
+        public long write(String cacheKey, Object value, long ttl, TimeUnit timeUnit, String... tags) {
+            Map<byte[], byte[]> fields = new LinkedHashMap<>();
+            long size = 0;
+            for (Object element : (List<?>) value) {
+                byte[] payload = valueSerializer().serialize(element);
+                fields.put(utf8(idExtractor.apply(element).toString()), payload);
+                size += payload.length;
+            }
+            fields.put(utf8(LIST_MARKER_FIELD), valueSerializer().serialize(Boolean.TRUE));
+            byte[] rawKey = utf8(cacheKey);
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.multi();
+                connection.keyCommands().del(rawKey);
+                connection.hashCommands().hMSet(rawKey, fields);
+                connection.keyCommands().pExpire(rawKey, timeUnit.toMillis(ttl));
+                tag(connection, cacheKey, timeUnit.toMillis(ttl), tags);
+                return connection.exec();
+            });
+            return size;
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.shas.smart_home_automation_system.util;
+
+public final class CacheTags {
+
+    private CacheTags() {
+    }
+
+    public static String userDevices(Long userId) {
+        return "devices:user:" + userId;
+    }
+
+    public static String homeDevices(Long homeId) {
+        return "devices:home:" + homeId;
+    }
+
+    public static String userDevicePages(Long userId) {
+        return "devices:pages:user:" + userId;
+    }
+
+    public static String userRooms(Long userId) {
+        return "rooms:user:" + userId;
+    }
+
+    public static String userHomes(Long userId) {
+        return "homes:user:" + userId;
+    }
+
+    public static String userPages() {
+        return "users:pages";
+    }
+}
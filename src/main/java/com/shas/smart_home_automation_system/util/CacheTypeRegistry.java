@@ -0,0 +1,78 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.HomeDto;
+import com.shas.smart_home_automation_system.dto.RoomDto;
+import com.shas.smart_home_automation_system.dto.UserDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps cached value types to the small numeric ids written by {@link BinaryCacheCodec}.
+ * Ids are part of the stored format: never reuse or renumber one, only append.
+ */
+public class CacheTypeRegistry {
+
+    public static final short EMPTY_LIST = 1;
+
+    private final TypeFactory typeFactory = TypeFactory.defaultInstance();
+    private final Map<Short, JavaType> typesById = new HashMap<>();
+    private final Map<Class<?>, Short> idsByClass = new HashMap<>();
+    private final Map<Class<?>, Short> listIdsByElementClass = new HashMap<>();
+
+    public CacheTypeRegistry() {
+        typesById.put(EMPTY_LIST, typeFactory.constructCollectionType(List.class, Object.class));
+
+        register((short) 2, String.class);
+        register((short) 3, Long.class);
+        register((short) 4, Double.class);
+        register((short) 5, Boolean.class);
+
+        register((short) 10, DeviceDto.class);
+        registerList((short) 11, DeviceDto.class);
+        register((short) 12, HomeDto.class);
+        registerList((short) 13, HomeDto.class);
+        register((short) 14, RoomDto.class);
+        registerList((short) 15, RoomDto.class);
+        register((short) 16, UserDto.class);
+        registerList((short) 17, UserDto.class);
+        registerList((short) 18, Long.class);
+    }
+
+    public Short idFor(Object value) {
+        if (value instanceof List<?> list) {
+            if (list.isEmpty()) {
+                return EMPTY_LIST;
+            }
+            if (list.getFirst() == null) {
+                return null;
+            }
+            Class<?> elementClass = list.getFirst().getClass();
+            for (Object element : list) {
+                if (element == null || element.getClass() != elementClass) {
+                    return null;
+                }
+            }
+            return listIdsByElementClass.get(elementClass);
+        }
+        return idsByClass.get(value.getClass());
+    }
+
+    public JavaType typeFor(short id) {
+        return typesById.get(id);
+    }
+
+    private void register(short id, Class<?> type) {
+        typesById.put(id, typeFactory.constructType(type));
+        idsByClass.put(type, id);
+    }
+
+    private void registerList(short id, Class<?> elementType) {
+        typesById.put(id, typeFactory.constructCollectionType(List.class, elementType));
+        listIdsByElementClass.put(elementType, id);
+    }
+}
@@ -0,0 +1,157 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.shas.smart_home_automation_system.config.NearCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process L1 tier that sits in front of Redis. Entries live for the per-cache TTL
+ * configured under {@code app.cache.near} and are dropped on other replicas through
+ * Redis pub/sub whenever the L2 copy is written or evicted.
+ */
+@Slf4j
+@Component
+public class NearCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "smarthome:cache:invalidate";
+
+    private static final String KEY_MESSAGE = "K";
+    private static final String PREFIX_MESSAGE = "P";
+
+    private final NearCacheProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, Entry> cache;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public NearCache(NearCacheProperties properties, StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new EntryExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "near");
+    }
+
+    public Object get(String cacheKey) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(cacheKey);
+        return entry != null ? entry.value() : null;
+    }
+
+    public void put(String cacheName, String cacheKey, Object value, long ttl, TimeUnit timeUnit) {
+        if (!properties.isEnabled() || value == null) {
+            return;
+        }
+        long nearTtl = Math.min(properties.ttlFor(cacheName).toNanos(), timeUnit.toNanos(ttl));
+        cache.put(cacheKey, new Entry(value, nearTtl));
+    }
+
+    public void invalidate(String cacheKey) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache.invalidate(cacheKey);
+        publish(KEY_MESSAGE, cacheKey);
+    }
+
+    public void invalidateAll(Collection<String> cacheKeys) {
+        if (!properties.isEnabled() || cacheKeys.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(cacheKeys);
+        publish(KEY_MESSAGE, String.join("\n", cacheKeys));
+    }
+
+    public void invalidatePeers(String cacheKey) {
+        if (properties.isEnabled()) {
+            publish(KEY_MESSAGE, cacheKey);
+        }
+    }
+
+    public void invalidatePeers(Collection<String> cacheKeys) {
+        if (properties.isEnabled() && !cacheKeys.isEmpty()) {
+            publish(KEY_MESSAGE, String.join("\n", cacheKeys));
+        }
+    }
+
+    public void invalidatePrefix(String keyPrefix) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        invalidateLocalPrefix(keyPrefix);
+        publish(PREFIX_MESSAGE, keyPrefix);
+    }
+
+    public boolean contains(String cacheKey) {
+        return properties.isEnabled() && cache.getIfPresent(cacheKey) != null;
+    }
+
+    public double hitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        if (KEY_MESSAGE.equals(parts[1])) {
+            cache.invalidateAll(List.of(parts[2].split("\n")));
+        } else if (PREFIX_MESSAGE.equals(parts[1])) {
+            invalidateLocalPrefix(parts[2]);
+        }
+        log.debug("Near cache invalidated by peer: {} {}", parts[1], parts[2]);
+    }
+
+    private void invalidateLocalPrefix(String keyPrefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    private void publish(String type, String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + "|" + type + "|" + payload);
+        } catch (Exception e) {
+            log.error("Error publishing near cache invalidation for: {}", payload, e);
+        }
+    }
+
+    private record Entry(Object value, long ttlNanos) {
+    }
+
+    private static class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- ===========================================
+-- Refresh daily_energy_consumption without blocking readers
+-- ===========================================
+-- Relies on the unique index idx_daily_energy_home_date created in V6.
+CREATE OR REPLACE FUNCTION refresh_daily_energy_consumption()
+RETURNS VOID AS $$
+BEGIN
+    REFRESH MATERIALIZED VIEW CONCURRENTLY daily_energy_consumption;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Per-device lookups of the last transition before a day starts, and history paging by time
+CREATE INDEX idx_device_state_history_device_created ON device_state_history(device_id, created_at);
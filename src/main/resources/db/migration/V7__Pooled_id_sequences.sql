@@ -0,0 +1,11 @@
+-- ===========================================
+-- Pooled id allocation for JPA entities
+-- ===========================================
+-- Hibernate reserves blocks of 50 ids per sequence call (pooled optimizer, allocationSize = 50),
+-- which lets inserts of users, homes, rooms and devices be JDBC-batched. The BIGSERIAL column
+-- defaults keep using the same sequences, so plain SQL inserts stay collision-free: each caller
+-- receives a distinct block boundary.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE homes_id_seq INCREMENT BY 50;
+ALTER SEQUENCE rooms_id_seq INCREMENT BY 50;
+ALTER SEQUENCE devices_id_seq INCREMENT BY 50;
@@ -0,0 +1,126 @@
+-- ===========================================
+-- Time-partitioning helpers
+-- ===========================================
+-- Creates the missing range partitions of a table partitioned on a timestamp column, one per
+-- day or week, covering [from_ts, to_ts). Rows that already landed in the default partition for
+-- a new range are moved into it before it is attached.
+CREATE OR REPLACE FUNCTION ensure_time_partitions(parent TEXT, part_column TEXT, unit TEXT,
+                                                  from_ts TIMESTAMP, to_ts TIMESTAMP)
+RETURNS INTEGER AS $$
+DECLARE
+    step INTERVAL := ('1 ' || unit)::INTERVAL;
+    bucket TIMESTAMP := date_trunc(unit, from_ts);
+    default_partition TEXT := parent || '_default';
+    partition_name TEXT;
+    has_default_rows BOOLEAN;
+    created INTEGER := 0;
+BEGIN
+    WHILE bucket < to_ts LOOP
+        partition_name := parent || '_p' || to_char(bucket, 'YYYYMMDD');
+        IF to_regclass(partition_name) IS NULL THEN
+            has_default_rows := FALSE;
+            IF to_regclass(default_partition) IS NOT NULL THEN
+                EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                               default_partition, part_column, bucket, part_column, bucket + step)
+                    INTO has_default_rows;
+            END IF;
+
+            IF has_default_rows THEN
+                EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                               partition_name, parent);
+                EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                               'INSERT INTO %I SELECT * FROM moved',
+                               default_partition, part_column, bucket, part_column, bucket + step, partition_name);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               parent, partition_name, bucket, bucket + step);
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, parent, bucket, bucket + step);
+            END IF;
+            created := created + 1;
+        END IF;
+        bucket := bucket + step;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Range partitions of parent whose upper bound is at or before cutoff, oldest first.
+CREATE OR REPLACE FUNCTION expired_time_partitions(parent TEXT, cutoff TIMESTAMP)
+RETURNS TABLE(partition_name TEXT, upper_bound TIMESTAMP) AS $$
+BEGIN
+    RETURN QUERY
+    SELECT bounds.relname::TEXT, bounds.upper_bound
+    FROM (
+        SELECT c.relname,
+               substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::TIMESTAMP AS upper_bound
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND pg_get_expr(c.relpartbound, c.oid) <> 'DEFAULT'
+    ) bounds
+    WHERE bounds.upper_bound <= cutoff
+    ORDER BY bounds.upper_bound;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ===========================================
+-- device_metrics: daily partitions on recorded_at
+-- ===========================================
+ALTER TABLE device_metrics RENAME TO device_metrics_legacy;
+
+CREATE TABLE device_metrics (
+    id BIGINT NOT NULL DEFAULT nextval('device_metrics_id_seq'),
+    device_id BIGINT NOT NULL,
+    metric_type VARCHAR(50) NOT NULL,
+    metric_value DOUBLE PRECISION NOT NULL,
+    recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, recorded_at),
+    FOREIGN KEY (device_id) REFERENCES devices(id) ON DELETE CASCADE
+) PARTITION BY RANGE (recorded_at);
+
+CREATE TABLE device_metrics_default PARTITION OF device_metrics DEFAULT;
+
+SELECT ensure_time_partitions('device_metrics', 'recorded_at', 'day',
+    LEAST(COALESCE((SELECT MIN(recorded_at) FROM device_metrics_legacy), LOCALTIMESTAMP), LOCALTIMESTAMP),
+    LOCALTIMESTAMP + INTERVAL '7 days');
+
+INSERT INTO device_metrics (id, device_id, metric_type, metric_value, recorded_at)
+SELECT id, device_id, metric_type, metric_value, COALESCE(recorded_at, LOCALTIMESTAMP)
+FROM device_metrics_legacy;
+
+ALTER SEQUENCE device_metrics_id_seq OWNED BY device_metrics.id;
+DROP TABLE device_metrics_legacy;
+
+CREATE INDEX idx_device_metrics_device_type_time ON device_metrics(device_id, metric_type, recorded_at);
+
+-- ===========================================
+-- device_events: weekly partitions on created_at
+-- ===========================================
+ALTER TABLE device_events RENAME TO device_events_legacy;
+
+CREATE TABLE device_events (
+    id BIGINT NOT NULL DEFAULT nextval('device_events_id_seq'),
+    device_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    event_data JSONB,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    FOREIGN KEY (device_id) REFERENCES devices(id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE device_events_default PARTITION OF device_events DEFAULT;
+
+SELECT ensure_time_partitions('device_events', 'created_at', 'week',
+    LEAST(COALESCE((SELECT MIN(created_at) FROM device_events_legacy), LOCALTIMESTAMP), LOCALTIMESTAMP),
+    LOCALTIMESTAMP + INTERVAL '4 weeks');
+
+INSERT INTO device_events (id, device_id, event_type, event_data, created_at)
+SELECT id, device_id, event_type, event_data, COALESCE(created_at, LOCALTIMESTAMP)
+FROM device_events_legacy;
+
+ALTER SEQUENCE device_events_id_seq OWNED BY device_events.id;
+DROP TABLE device_events_legacy;
+
+CREATE INDEX idx_device_events_device_created ON device_events(device_id, created_at);
+CREATE INDEX idx_device_events_type_created ON device_events(event_type, created_at);
@@ -0,0 +1,45 @@
+-- ===========================================
+-- Downsampled device_metrics: 1 minute, 1 hour and 1 day buckets
+-- ===========================================
+-- avg is derived as sum_value / sample_count so coarser buckets can be built from finer ones.
+CREATE TABLE device_metric_rollups_1m (
+    device_id BIGINT NOT NULL,
+    metric_type VARCHAR(50) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    min_value DOUBLE PRECISION NOT NULL,
+    max_value DOUBLE PRECISION NOT NULL,
+    sum_value DOUBLE PRECISION NOT NULL,
+    sample_count BIGINT NOT NULL,
+    PRIMARY KEY (device_id, metric_type, bucket),
+    FOREIGN KEY (device_id) REFERENCES devices(id) ON DELETE CASCADE
+);
+
+CREATE TABLE device_metric_rollups_1h (
+    device_id BIGINT NOT NULL,
+    metric_type VARCHAR(50) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    min_value DOUBLE PRECISION NOT NULL,
+    max_value DOUBLE PRECISION NOT NULL,
+    sum_value DOUBLE PRECISION NOT NULL,
+    sample_count BIGINT NOT NULL,
+    PRIMARY KEY (device_id, metric_type, bucket),
+    FOREIGN KEY (device_id) REFERENCES devices(id) ON DELETE CASCADE
+);
+
+CREATE TABLE device_metric_rollups_1d (
+    device_id BIGINT NOT NULL,
+    metric_type VARCHAR(50) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    min_value DOUBLE PRECISION NOT NULL,
+    max_value DOUBLE PRECISION NOT NULL,
+    sum_value DOUBLE PRECISION NOT NULL,
+    sample_count BIGINT NOT NULL,
+    PRIMARY KEY (device_id, metric_type, bucket),
+    FOREIGN KEY (device_id) REFERENCES devices(id) ON DELETE CASCADE
+);
+
+-- Every bucket of a resolution that starts before rolled_up_to is complete.
+CREATE TABLE metric_rollup_watermarks (
+    resolution VARCHAR(5) PRIMARY KEY,
+    rolled_up_to TIMESTAMP NOT NULL
+);
@@ -0,0 +1,78 @@
+package com.shas.smart_home_automation_system;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+/**
+ * A fresh Postgres database with all Flyway migrations applied, for tests of SQL that H2 cannot run.
+ * Uses the server given by {@code -Dpostgres.url} (plus {@code postgres.user} and
+ * {@code postgres.password}), otherwise a Testcontainers container when Docker is available;
+ * without either, the calling test is skipped.
+ */
+public final class PostgresTestDatabase implements AutoCloseable {
+
+    private static PostgreSQLContainer<?> container;
+
+    private final JdbcTemplate admin;
+    private final String name;
+    private final DataSource dataSource;
+
+    private PostgresTestDatabase(DataSource adminDataSource, String url, String user, String password) {
+        this.admin = new JdbcTemplate(adminDataSource);
+        this.name = "shas_test_" + UUID.randomUUID().toString().replace("-", "");
+        admin.execute("CREATE DATABASE " + name);
+        this.dataSource = new DriverManagerDataSource(
+                url.replaceFirst("/[^/?]*(\\?|$)", "/" + name + "$1"), user, password);
+    }
+
+    public static PostgresTestDatabase migrated() {
+        String url = System.getProperty("postgres.url");
+        String user = System.getProperty("postgres.user", "postgres");
+        String password = System.getProperty("postgres.password", "");
+        if (url == null) {
+            PostgreSQLContainer<?> postgres = container();
+            url = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+        PostgresTestDatabase database = new PostgresTestDatabase(new DriverManagerDataSource(url, user, password),
+                url, user, password);
+        Flyway.configure()
+                .dataSource(database.dataSource)
+                .locations("classpath:db/migration")
+                .mixed(true)
+                .load()
+                .migrate();
+        return database;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void close() {
+        admin.execute("DROP DATABASE IF EXISTS " + name + " WITH (FORCE)");
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                    "Neither -Dpostgres.url nor Docker is available");
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,66 @@
+package com.shas.smart_home_automation_system.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource replica = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(0L);
+
+        dataSource = new ReplicaRoutingDataSource(mock(DataSource.class), Map.of("replica-1", replica),
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToHealthyReplica() {
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo("replica-1");
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo("primary");
+    }
+
+    @Test
+    void routesReadsInsideOnPrimaryToPrimary() {
+        Object nested = ReplicaRoutingDataSource.onPrimary(() -> {
+            assertThat(dataSource.determineCurrentLookupKey()).isEqualTo("primary");
+            return ReplicaRoutingDataSource.onPrimary(dataSource::determineCurrentLookupKey);
+        });
+
+        assertThat(nested).isEqualTo("primary");
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo("replica-1");
+    }
+}
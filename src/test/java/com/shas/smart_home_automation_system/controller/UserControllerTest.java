@@ -0,0 +1,57 @@
+package com.shas.smart_home_automation_system.controller;
+
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.security.JwtService;
+import com.shas.smart_home_automation_system.security.WebSecurityConfig;
+import com.shas.smart_home_automation_system.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// application.yaml requires SPRING_PROFILES_ACTIVE and names a date-format class that is not on the classpath
+@WebMvcTest(controllers = UserController.class, properties = {
+        "SPRING_PROFILES_ACTIVE=test",
+        "spring.jackson.date-format=yyyy-MM-dd'T'HH:mm:ss.SSSXXX"
+})
+@Import(WebSecurityConfig.class)
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Test
+    void adminsCanExportUsers() throws Exception {
+        mockMvc.perform(get("/users/export").with(authentication(as("ROLE_ADMIN"))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void usersCannotExportUsers() throws Exception {
+        mockMvc.perform(get("/users/export").with(authentication(as("ROLE_USER"))))
+                .andExpect(status().isForbidden());
+    }
+
+    private static UsernamePasswordAuthenticationToken as(String role) {
+        // roles as stored in user_roles, so the test goes through User.getAuthorities()
+        User user = new User();
+        user.setId(1L);
+        user.setRoles(Set.of(role));
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
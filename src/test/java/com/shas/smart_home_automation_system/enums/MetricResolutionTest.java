@@ -0,0 +1,32 @@
+package com.shas.smart_home_automation_system.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricResolutionTest {
+
+    @Test
+    void picksTheCoarsestRollupThatEvenlyDividesTheStep() {
+        assertThat(MetricResolution.coarsestFor(Duration.ofSeconds(30))).isNull();
+        assertThat(MetricResolution.coarsestFor(Duration.ofSeconds(90))).isNull();
+        assertThat(MetricResolution.coarsestFor(Duration.ofMinutes(1))).isEqualTo(MetricResolution.MINUTE);
+        assertThat(MetricResolution.coarsestFor(Duration.ofMinutes(90))).isEqualTo(MetricResolution.MINUTE);
+        assertThat(MetricResolution.coarsestFor(Duration.ofHours(1))).isEqualTo(MetricResolution.HOUR);
+        assertThat(MetricResolution.coarsestFor(Duration.ofHours(36))).isEqualTo(MetricResolution.HOUR);
+        assertThat(MetricResolution.coarsestFor(Duration.ofDays(1))).isEqualTo(MetricResolution.DAY);
+        assertThat(MetricResolution.coarsestFor(Duration.ofDays(7))).isEqualTo(MetricResolution.DAY);
+    }
+
+    @Test
+    void truncatesToTheStartOfItsBucket() {
+        LocalDateTime time = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+        assertThat(MetricResolution.MINUTE.truncate(time)).isEqualTo(LocalDateTime.of(2026, 3, 14, 15, 9));
+        assertThat(MetricResolution.HOUR.truncate(time)).isEqualTo(LocalDateTime.of(2026, 3, 14, 15, 0));
+        assertThat(MetricResolution.DAY.truncate(time)).isEqualTo(LocalDateTime.of(2026, 3, 14, 0, 0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.shas.smart_home_automation_system.mapper;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.Room;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.enums.DeviceType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class DeviceMapperTest {
+
+    private final DeviceMapper deviceMapper = Mappers.getMapper(DeviceMapper.class);
+    private final ModelMapper modelMapper = legacyModelMapper();
+
+    @Test
+    void mapsModelMapperFieldsPlusAssociationIds() {
+        List<Device> devices = devices(10);
+
+        List<DeviceDto> generated = deviceMapper.toDtoList(devices);
+        List<DeviceDto> reflective = devices.stream().map(device -> modelMapper.map(device, DeviceDto.class)).toList();
+
+        assertThat(generated).usingRecursiveFieldByFieldElementComparatorIgnoringFields("homeId", "roomId")
+                .isEqualTo(reflective);
+        assertThat(generated.getFirst().getHomeId()).isEqualTo(7L);
+        assertThat(generated.getFirst().getRoomId()).isEqualTo(3L);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkConversionOfThousandDevices() {
+        List<Device> devices = devices(1000);
+        long reflective = measure("modelmapper", devices,
+                list -> list.stream().map(device -> modelMapper.map(device, DeviceDto.class)).toList());
+        long generated = measure("mapstruct", devices, deviceMapper::toDtoList);
+
+        assertThat(reflective).as("modelmapper vs mapstruct, ns/list").isGreaterThan(10 * generated);
+    }
+
+    private long measure(String label, List<Device> devices, Function<List<Device>, List<DeviceDto>> converter) {
+        int iterations = 500;
+        for (int i = 0; i < iterations; i++) {
+            converter.apply(devices);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            converter.apply(devices);
+        }
+        long perList = (System.nanoTime() - start) / iterations;
+        log.info("{} 1000 devices: {} ns/list", label, perList);
+        return perList;
+    }
+
+    private static List<Device> devices(int count) {
+        Home home = new Home();
+        home.setId(7L);
+        Room room = new Room();
+        room.setId(3L);
+
+        List<Device> devices = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            Device device = new Device();
+            device.setId(i);
+            device.setName("Device " + i);
+            device.setDeviceId("device-" + i);
+            device.setType(DeviceType.LIGHT);
+            device.setStatus(i % 2 == 0 ? DeviceStatus.ONLINE : DeviceStatus.OFFLINE);
+            device.setHome(home);
+            device.setRoom(room);
+            device.setManufacturer("Philips");
+            device.setModel("Hue White");
+            device.setPowerConsumption(8.5);
+            device.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    private static ModelMapper legacyModelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setFieldMatchingEnabled(true)
+                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE)
+                .setSkipNullEnabled(true)
+                .setAmbiguityIgnored(true);
+        return modelMapper;
+    }
+}
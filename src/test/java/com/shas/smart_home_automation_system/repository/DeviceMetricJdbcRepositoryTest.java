@@ -0,0 +1,105 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.dto.MetricReadingDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.profiles.active=test",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Slf4j
+class DeviceMetricJdbcRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private DeviceMetricJdbcRepository repository;
+    private Device device;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS device_metrics (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, device_id BIGINT NOT NULL REFERENCES devices(id), " +
+                "metric_type VARCHAR(50) NOT NULL, metric_value DOUBLE PRECISION NOT NULL, recorded_at TIMESTAMP)");
+        repository = new DeviceMetricJdbcRepository(jdbcTemplate);
+
+        User user = new User();
+        user.setUsername("metrics");
+        user.setEmail("metrics@example.com");
+        user.setPassword("secret");
+        user.setFirstName("metrics");
+        user.setLastName("metrics");
+        entityManager.persist(user);
+
+        Home home = new Home();
+        home.setName("metrics home");
+        home.setUser(user);
+        entityManager.persist(home);
+
+        device = new Device();
+        device.setName("thermometer");
+        device.setDeviceId("metrics-thermometer");
+        device.setType(DeviceType.SENSOR);
+        device.setHome(home);
+        entityManager.persist(device);
+        entityManager.flush();
+    }
+
+    @Test
+    void insertSkipsReadingsForMissingDevices() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<MetricReadingDto> readings = List.of(
+                new MetricReadingDto(device.getId(), "temperature", 21.5, now),
+                new MetricReadingDto(device.getId() + 1_000, "temperature", 19.0, now),
+                new MetricReadingDto(device.getId(), "humidity", 40.0, now.plusSeconds(1)));
+
+        assertThat(repository.insert(readings)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT metric_type FROM device_metrics WHERE device_id = ? ORDER BY recorded_at", String.class, device.getId()))
+                .containsExactly("temperature", "humidity");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkInsert() {
+        List<MetricReadingDto> readings = new ArrayList<>(5_000);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 5_000; i++) {
+            readings.add(new MetricReadingDto(device.getId(), "temperature", 20.0 + i % 10, start.plusSeconds(i)));
+        }
+        long readingsPerSecond = 0;
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            long inserted = repository.insert(readings);
+            long elapsedMicros = Math.max(1, (System.nanoTime() - begin) / 1_000);
+            readingsPerSecond = inserted * 1_000_000 / elapsedMicros;
+            log.info("round={} readings={} {} us {} readings/s", round, inserted, elapsedMicros, readingsPerSecond);
+        }
+        // the ingestion target is tens of thousands of readings per second per node
+        assertThat(readingsPerSecond).as("readings/s after warm-up").isGreaterThanOrEqualTo(20_000);
+    }
+}
@@ -0,0 +1,116 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.dto.DeviceStateChangeDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.enums.DeviceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.profiles.active=test",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class DeviceStateHistoryJdbcRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private DeviceStateHistoryJdbcRepository repository;
+    private Device device;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS device_state_history (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, device_id BIGINT NOT NULL REFERENCES devices(id), " +
+                "old_status VARCHAR(20), new_status VARCHAR(20) NOT NULL, changed_by BIGINT, reason TEXT, " +
+                "created_at TIMESTAMP)");
+        repository = new DeviceStateHistoryJdbcRepository(jdbcTemplate);
+
+        User user = new User();
+        user.setUsername("history");
+        user.setEmail("history@example.com");
+        user.setPassword("secret");
+        user.setFirstName("history");
+        user.setLastName("history");
+        entityManager.persist(user);
+
+        Home home = new Home();
+        home.setName("history home");
+        home.setUser(user);
+        entityManager.persist(home);
+
+        device = new Device();
+        device.setName("lamp");
+        device.setDeviceId("history-lamp");
+        device.setType(DeviceType.LIGHT);
+        device.setHome(home);
+        entityManager.persist(device);
+        entityManager.flush();
+    }
+
+    @Test
+    void insertExistingSkipsChangesForMissingDevices() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<DeviceStateChangeDto> changes = List.of(
+                change(device.getId(), DeviceStatus.OFFLINE, DeviceStatus.ONLINE, now),
+                change(device.getId() + 1_000, DeviceStatus.OFFLINE, DeviceStatus.ONLINE, now));
+
+        assertThat(repository.insertExisting(changes)).isEqualTo(1);
+        assertThat(repository.findPage(device.getId(), null, null, 10))
+                .extracting(DeviceStateChangeDto::getNewStatus)
+                .containsExactly(DeviceStatus.ONLINE);
+    }
+
+    @Test
+    void pagesNewestFirstWithoutGapsOrDuplicatesOnEqualTimestamps() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<DeviceStateChangeDto> changes = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // pairs of transitions share a timestamp so the id tie-breaker is exercised
+            changes.add(change(device.getId(), DeviceStatus.OFFLINE, DeviceStatus.ONLINE, start.plusMinutes(i / 2)));
+        }
+        repository.insert(changes);
+
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime before = null;
+        Long beforeId = null;
+        List<DeviceStateChangeDto> page;
+        do {
+            page = repository.findPage(device.getId(), before, beforeId, 3);
+            page.forEach(change -> seen.add(change.getId()));
+            if (!page.isEmpty()) {
+                before = page.getLast().getCreatedAt();
+                beforeId = page.getLast().getId();
+            }
+        } while (page.size() == 3);
+
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM device_state_history WHERE device_id = ? ORDER BY created_at DESC, id DESC",
+                Long.class, device.getId());
+        assertThat(seen).hasSize(7).isEqualTo(expected);
+    }
+
+    private static DeviceStateChangeDto change(Long deviceId, DeviceStatus from, DeviceStatus to, LocalDateTime at) {
+        return new DeviceStateChangeDto(null, deviceId, from, to, null, null, at);
+    }
+}
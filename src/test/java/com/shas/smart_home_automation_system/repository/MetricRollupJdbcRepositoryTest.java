@@ -0,0 +1,103 @@
+package com.shas.smart_home_automation_system.repository;
+
+import com.shas.smart_home_automation_system.PostgresTestDatabase;
+import com.shas.smart_home_automation_system.dto.MetricBucketDto;
+import com.shas.smart_home_automation_system.enums.MetricResolution;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricRollupJdbcRepositoryTest {
+
+    private static final String METRIC = "ROLLUP_TEST";
+
+    private static PostgresTestDatabase database;
+    private static JdbcTemplate jdbcTemplate;
+    private static MetricRollupJdbcRepository repository;
+    private static Long deviceId;
+
+    @BeforeAll
+    static void migrate() {
+        database = PostgresTestDatabase.migrated();
+        jdbcTemplate = database.jdbcTemplate();
+        repository = new MetricRollupJdbcRepository(jdbcTemplate);
+        deviceId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM devices", Long.class);
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    void rollsUpLevelByLevelAndServesSeriesFromRollupsThenRawRows() {
+        LocalDateTime base = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).minusDays(3);
+        insert(base.plusSeconds(10), 1.0);
+        insert(base.plusSeconds(50), 3.0);
+        insert(base.plusSeconds(80), 5.0);
+        insert(base.plusMinutes(90), 7.0);
+
+        assertThat(repository.rollUp(MetricResolution.MINUTE, base, base.plusHours(2))).isTrue();
+        assertThat(repository.rollUp(MetricResolution.HOUR, base, base.plusHours(2))).isTrue();
+        // a rerun over the same range upserts instead of double counting
+        assertThat(repository.rollUp(MetricResolution.HOUR, base, base.plusHours(2))).isTrue();
+        insert(base.plusMinutes(125), 9.0);
+
+        assertThat(bucket("device_metric_rollups_1m", base)).containsExactly(1.0, 3.0, 4.0, 2.0);
+        assertThat(bucket("device_metric_rollups_1m", base.plusMinutes(1))).containsExactly(5.0, 5.0, 5.0, 1.0);
+        assertThat(bucket("device_metric_rollups_1h", base)).containsExactly(1.0, 5.0, 9.0, 3.0);
+        Map<MetricResolution, LocalDateTime> watermarks = repository.watermarks();
+        assertThat(watermarks).containsEntry(MetricResolution.MINUTE, base.plusHours(2))
+                .containsEntry(MetricResolution.HOUR, base.plusHours(2))
+                .doesNotContainKey(MetricResolution.DAY);
+        assertThat(repository.earliestSource(MetricResolution.HOUR)).isEqualTo(base);
+
+        List<MetricBucketDto> series = repository.series(deviceId, METRIC, base, base.plusHours(3),
+                Duration.ofHours(1), MetricResolution.HOUR, watermarks);
+
+        assertThat(series).containsExactly(
+                new MetricBucketDto(base, 1.0, 5.0, 3.0, 3L),
+                new MetricBucketDto(base.plusHours(1), 7.0, 7.0, 7.0, 1L),
+                new MetricBucketDto(base.plusHours(2), 9.0, 9.0, 9.0, 1L));
+    }
+
+    @Test
+    void seriesFromRawRowsOnlyBinsByTheRequestedStep() {
+        LocalDateTime base = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).minusDays(10);
+        insert(base.plusSeconds(5), 2.0);
+        insert(base.plusSeconds(25), 4.0);
+        insert(base.plusSeconds(35), 6.0);
+
+        List<MetricBucketDto> series = repository.series(deviceId, METRIC, base, base.plusMinutes(1),
+                Duration.ofSeconds(30), null, Map.of());
+
+        assertThat(series).containsExactly(
+                new MetricBucketDto(base, 2.0, 4.0, 3.0, 2L),
+                new MetricBucketDto(base.plusSeconds(30), 6.0, 6.0, 6.0, 1L));
+    }
+
+    private static void insert(LocalDateTime recordedAt, double value) {
+        jdbcTemplate.update("INSERT INTO device_metrics (device_id, metric_type, metric_value, recorded_at) VALUES (?, ?, ?, ?)",
+                deviceId, METRIC, value, Timestamp.valueOf(recordedAt));
+    }
+
+    private static List<Double> bucket(String table, LocalDateTime bucket) {
+        return jdbcTemplate.queryForObject("SELECT min_value, max_value, sum_value, sample_count FROM " + table +
+                        " WHERE device_id = ? AND metric_type = ? AND bucket = ?",
+                (rs, rowNum) -> List.of(rs.getDouble(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4)),
+                deviceId, METRIC, Timestamp.valueOf(bucket));
+    }
+}
@@ -0,0 +1,100 @@
+package com.shas.smart_home_automation_system.security;
+
+import com.shas.smart_home_automation_system.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtService jwtService = jwtService();
+
+    @Test
+    void buildsPrincipalFromVerifiedClaims() {
+        String token = jwtService.generateAccessKey(user());
+
+        Claims first = jwtService.getClaims(token);
+        Claims second = jwtService.getClaims(token);
+        User principal = jwtService.getPrincipal(second);
+
+        assertThat(second).isSameAs(first);
+        assertThat(principal.getId()).isEqualTo(42L);
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getRoles()).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void rejectsTamperedTokensEvenWhenOriginalIsCached() {
+        String token = jwtService.generateAccessKey(user());
+        jwtService.getClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.getClaims(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTokenValidation() {
+        String token = jwtService.generateAccessKey(user());
+        int iterations = 200_000;
+
+        for (int i = 0; i < iterations; i++) {
+            parsePerRequest(token);
+            jwtService.getClaims(token);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parsePerRequest(token);
+        }
+        long before = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            jwtService.getClaims(token);
+        }
+        long after = System.nanoTime() - start;
+
+        log.info("key+parser per call: {} validations/s", iterations * 1_000_000_000L / before);
+        log.info("shared parser+cache: {} validations/s", iterations * 1_000_000_000L / after);
+        assertThat(before).as("per-call parsing vs cached claims, ns").isGreaterThan(5 * after);
+    }
+
+    private static Claims parsePerRequest(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtService jwtService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaximumSize", 1_000L);
+        service.init();
+        return service;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setRoles(Set.of("ROLE_USER"));
+        return user;
+    }
+}
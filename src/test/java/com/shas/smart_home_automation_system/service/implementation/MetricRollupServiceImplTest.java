@@ -0,0 +1,161 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.MetricSeriesDto;
+import com.shas.smart_home_automation_system.enums.MetricResolution;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.repository.MetricRollupJdbcRepository;
+import com.shas.smart_home_automation_system.service.DeviceService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MetricRollupServiceImplTest {
+
+    private static final Long DEVICE_ID = 7L;
+
+    private final DeviceService deviceService = mock(DeviceService.class);
+    private final MetricRollupJdbcRepository rollupRepository = mock(MetricRollupJdbcRepository.class);
+    private final MetricRollupServiceImpl service =
+            new MetricRollupServiceImpl(deviceService, rollupRepository, Duration.ofMinutes(2), 2000);
+
+    @Test
+    void autoStepPicksTheFinestStepWithinThePointBudget() {
+        assertThat(MetricRollupServiceImpl.autoStep(Duration.ofHours(1), 200)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(MetricRollupServiceImpl.autoStep(Duration.ofHours(24), 200)).isEqualTo(Duration.ofMinutes(15));
+        assertThat(MetricRollupServiceImpl.autoStep(Duration.ofDays(30), 200)).isEqualTo(Duration.ofHours(6));
+        assertThat(MetricRollupServiceImpl.autoStep(Duration.ofDays(30), 2000)).isEqualTo(Duration.ofMinutes(30));
+        // past the largest step, whole weeks are used
+        assertThat(MetricRollupServiceImpl.autoStep(Duration.ofDays(7 * 500), 200)).isEqualTo(Duration.ofDays(21));
+    }
+
+    @Test
+    void widensTheRangeToWholeSourceBuckets() {
+        ownDevice();
+        LocalDateTime from = LocalDateTime.of(2026, 3, 14, 10, 7, 30);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 14, 12, 3, 10);
+
+        MetricSeriesDto series = service.getSeries(DEVICE_ID, "POWER", from, to, "1h");
+
+        verify(rollupRepository).series(eq(DEVICE_ID), eq("POWER"), eq(LocalDateTime.of(2026, 3, 14, 10, 0)),
+                eq(LocalDateTime.of(2026, 3, 14, 13, 0)), eq(Duration.ofHours(1)), eq(MetricResolution.HOUR), anyMap());
+        assertThat(series.getSource()).isEqualTo("1h");
+        assertThat(series.getStepSeconds()).isEqualTo(3600);
+    }
+
+    @Test
+    void keepsSubMinuteStepsOnRawRowsAndCoarsensStepsOverTheBucketLimit() {
+        ownDevice();
+        LocalDateTime to = LocalDateTime.of(2026, 3, 14, 12, 0, 10);
+
+        MetricSeriesDto raw = service.getSeries(DEVICE_ID, "POWER", to.minusMinutes(10), to, "30s");
+        MetricSeriesDto coarsened = service.getSeries(DEVICE_ID, "POWER", to.minusDays(30), to, "1m");
+
+        assertThat(raw.getSource()).isEqualTo("raw");
+        assertThat(raw.getFrom()).isEqualTo(to.minusMinutes(10));
+        assertThat(raw.getTo()).isEqualTo(to);
+        assertThat(coarsened.getStepSeconds()).isEqualTo(1800);
+        assertThat(coarsened.getSource()).isEqualTo("1m");
+    }
+
+    @Test
+    void rejectsDevicesTheUserDoesNotOwn() {
+        when(deviceService.getUserDevices()).thenReturn(List.of());
+
+        assertThatThrownBy(() -> service.getSeries(DEVICE_ID, "POWER", null, null, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(rollupRepository, never()).series(anyLong(), anyString(), any(), any(), any(), any(), anyMap());
+    }
+
+    @Test
+    void coarserLevelsStopAtTheWatermarkOfTheFinerLevel() {
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        Map<MetricResolution, LocalDateTime> watermarks = new EnumMap<>(MetricResolution.class);
+        watermarks.put(MetricResolution.MINUTE, hour.minusHours(3));
+        watermarks.put(MetricResolution.HOUR, hour.minusHours(5));
+        watermarks.put(MetricResolution.DAY, hour.truncatedTo(ChronoUnit.DAYS).minusDays(2));
+        when(rollupRepository.watermarks()).thenReturn(watermarks);
+        // another node holds the minute lock, so the minute level does not advance
+        when(rollupRepository.rollUp(eq(MetricResolution.MINUTE), any(), any())).thenReturn(false);
+        when(rollupRepository.rollUp(eq(MetricResolution.HOUR), any(), any())).thenReturn(true);
+        when(rollupRepository.rollUp(eq(MetricResolution.DAY), any(), any())).thenReturn(true);
+
+        service.refreshRollups();
+
+        // each level restarts one bucket early to pick up late arrivals
+        verify(rollupRepository).rollUp(MetricResolution.HOUR, hour.minusHours(6), hour.minusHours(3));
+        verify(rollupRepository).rollUp(MetricResolution.DAY, hour.truncatedTo(ChronoUnit.DAYS).minusDays(3),
+                hour.minusHours(3).truncatedTo(ChronoUnit.DAYS));
+    }
+
+    @Test
+    void readingsOlderThanTheMinuteWatermarkAreNoLongerAccepted() {
+        LocalDateTime minute = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES).minusMinutes(1);
+        Map<MetricResolution, LocalDateTime> watermarks = new EnumMap<>(MetricResolution.class);
+        watermarks.put(MetricResolution.MINUTE, minute);
+        when(rollupRepository.watermarks()).thenReturn(watermarks);
+        assertThat(service.earliestRollupReading()).isNull();
+
+        service.refreshRollups();
+
+        assertThat(service.earliestRollupReading()).isEqualTo(minute);
+    }
+
+    @Test
+    void firstRunBuildsEachLevelInContiguousChunksUpToItsChild() {
+        LocalDateTime earliest = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES).minusMinutes(150);
+        when(rollupRepository.watermarks()).thenReturn(new EnumMap<>(MetricResolution.class));
+        when(rollupRepository.earliestSource(MetricResolution.MINUTE)).thenReturn(earliest);
+        when(rollupRepository.earliestSource(MetricResolution.HOUR)).thenReturn(earliest.truncatedTo(ChronoUnit.HOURS));
+        when(rollupRepository.earliestSource(MetricResolution.DAY)).thenReturn(null);
+        when(rollupRepository.rollUp(any(), any(), any())).thenReturn(true);
+
+        service.refreshRollups();
+
+        List<LocalDateTime[]> minutes = rollUps(MetricResolution.MINUTE, 3);
+        assertThat(minutes.getFirst()[0]).isEqualTo(earliest);
+        assertThat(minutes.get(0)[1]).isEqualTo(earliest.plusMinutes(60)).isEqualTo(minutes.get(1)[0]);
+        assertThat(minutes.get(1)[1]).isEqualTo(earliest.plusMinutes(120)).isEqualTo(minutes.get(2)[0]);
+        LocalDateTime minuteEnd = minutes.getLast()[1];
+        List<LocalDateTime[]> hours = rollUps(MetricResolution.HOUR, 1);
+        assertThat(hours.getFirst()[0]).isEqualTo(earliest.truncatedTo(ChronoUnit.HOURS));
+        assertThat(hours.getFirst()[1]).isEqualTo(minuteEnd.truncatedTo(ChronoUnit.HOURS));
+        verify(rollupRepository, never()).rollUp(eq(MetricResolution.DAY), any(), any());
+    }
+
+    private List<LocalDateTime[]> rollUps(MetricResolution resolution, int times) {
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(rollupRepository, times(times)).rollUp(eq(resolution), from.capture(), to.capture());
+        return IntStream.range(0, times)
+                .mapToObj(i -> new LocalDateTime[]{from.getAllValues().get(i), to.getAllValues().get(i)})
+                .toList();
+    }
+
+    private void ownDevice() {
+        DeviceDto device = new DeviceDto();
+        device.setId(DEVICE_ID);
+        when(deviceService.getUserDevices()).thenReturn(List.of(device));
+    }
+}
@@ -0,0 +1,75 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionMaintenanceServiceImplTest {
+
+    private static PostgresTestDatabase database;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        database = PostgresTestDatabase.migrated();
+        jdbcTemplate = database.jdbcTemplate();
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    void dropsExpiredPartitionsPurgesTheDefaultPartitionAndPremakesUpcomingOnes() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime expiredDay = now.minusDays(100).truncatedTo(ChronoUnit.DAYS);
+        String expiredPartition = "device_metrics_p" + expiredDay.toLocalDate().toString().replace("-", "");
+        jdbcTemplate.queryForObject("SELECT ensure_time_partitions('device_metrics', 'recorded_at', 'day', ?, ?)",
+                Integer.class, Timestamp.valueOf(expiredDay), Timestamp.valueOf(expiredDay.plusHours(1)));
+        Long deviceId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM devices", Long.class);
+        insertMetric(deviceId, expiredDay.plusHours(1));
+        insertMetric(deviceId, now.minusDays(200));
+        insertMetric(deviceId, now);
+        assertThat(exists(expiredPartition)).isTrue();
+
+        service().maintainPartitions();
+
+        assertThat(exists(expiredPartition)).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM device_metrics WHERE recorded_at < ?", now.minusDays(90))).isZero();
+        assertThat(count("SELECT COUNT(*) FROM device_metrics WHERE recorded_at = ?", now)).isEqualTo(1);
+        assertThat(exists("device_metrics_p" + now.plusDays(6).toLocalDate().toString().replace("-", ""))).isTrue();
+        assertThat(count("SELECT COUNT(*) FROM expired_time_partitions('device_events', ?)", now.minusDays(365)))
+                .isZero();
+    }
+
+    private static PartitionMaintenanceServiceImpl service() {
+        return new PartitionMaintenanceServiceImpl(jdbcTemplate, Duration.ofDays(90), Duration.ofDays(7),
+                Duration.ofDays(365), Duration.ofDays(28));
+    }
+
+    private static void insertMetric(Long deviceId, LocalDateTime recordedAt) {
+        jdbcTemplate.update("INSERT INTO device_metrics (device_id, metric_type, metric_value, recorded_at) VALUES (?, 'POWER', 1.0, ?)",
+                deviceId, Timestamp.valueOf(recordedAt));
+    }
+
+    private static boolean exists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    private static long count(String sql, LocalDateTime at) {
+        return jdbcTemplate.queryForObject(sql, Long.class, Timestamp.valueOf(at));
+    }
+}
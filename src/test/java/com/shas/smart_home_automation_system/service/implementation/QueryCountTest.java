@@ -0,0 +1,425 @@
+package com.shas.smart_home_automation_system.service.implementation;
+
+import com.shas.smart_home_automation_system.dto.CursorPageDto;
+import com.shas.smart_home_automation_system.dto.DeviceChangeEventDto;
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningRequestDto;
+import com.shas.smart_home_automation_system.dto.HomeProvisioningResultDto;
+import com.shas.smart_home_automation_system.dto.RoomProvisioningDto;
+import com.shas.smart_home_automation_system.entity.Device;
+import com.shas.smart_home_automation_system.entity.DeviceGroup;
+import com.shas.smart_home_automation_system.entity.Home;
+import com.shas.smart_home_automation_system.entity.Room;
+import com.shas.smart_home_automation_system.entity.User;
+import com.shas.smart_home_automation_system.enums.DeviceChangeType;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.enums.DeviceType;
+import com.shas.smart_home_automation_system.enums.RoomType;
+import com.shas.smart_home_automation_system.exceptions.ResourceNotFoundException;
+import com.shas.smart_home_automation_system.mapper.DeviceMapper;
+import com.shas.smart_home_automation_system.mapper.HomeMapper;
+import com.shas.smart_home_automation_system.mapper.RoomMapper;
+import com.shas.smart_home_automation_system.repository.DeviceRepository;
+import com.shas.smart_home_automation_system.repository.HomeRepository;
+import com.shas.smart_home_automation_system.repository.RoomRepository;
+import com.shas.smart_home_automation_system.repository.UserRepository;
+import com.shas.smart_home_automation_system.service.DeviceEventService;
+import com.shas.smart_home_automation_system.service.DeviceStateHistoryService;
+import com.shas.smart_home_automation_system.service.PowerConsumptionService;
+import com.shas.smart_home_automation_system.util.CacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.profiles.active=test",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Slf4j
+class QueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private HomeRepository homeRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private CacheService cacheService;
+    private PowerConsumptionService powerConsumptionService;
+    private DeviceEventService deviceEventService;
+    private DeviceServiceImpl deviceService;
+    private RoomServiceImpl roomService;
+    private HomeServiceImpl homeService;
+    private HomeProvisioningServiceImpl provisioningService;
+    private Statistics statistics;
+
+    private Seed small;
+    private Seed large;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = mock(CacheService.class, invocation -> switch (invocation.getMethod().getName()) {
+            case "getOrLoad" -> ((Supplier<?>) invocation.getArgument(2)).get();
+            case "getOrLoadList" -> ((Supplier<?>) invocation.getArgument(3)).get();
+            default -> null;
+        });
+        powerConsumptionService = mock(PowerConsumptionService.class);
+        deviceEventService = mock(DeviceEventService.class);
+        deviceService = new DeviceServiceImpl(deviceRepository, homeRepository, cacheService, powerConsumptionService,
+                deviceEventService, mock(DeviceStateHistoryService.class),
+                mock(ApplicationEventPublisher.class), Mappers.getMapper(DeviceMapper.class));
+        roomService = new RoomServiceImpl(roomRepository, homeRepository, deviceRepository, cacheService,
+                powerConsumptionService, deviceEventService, mock(ApplicationEventPublisher.class),
+                Mappers.getMapper(RoomMapper.class));
+        homeService = new HomeServiceImpl(homeRepository, userRepository, deviceRepository, cacheService,
+                powerConsumptionService, deviceEventService, mock(ApplicationEventPublisher.class),
+                Mappers.getMapper(HomeMapper.class));
+        provisioningService = new HomeProvisioningServiceImpl(homeRepository, roomRepository, deviceRepository,
+                cacheService, Mappers.getMapper(RoomMapper.class), Mappers.getMapper(DeviceMapper.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        small = seed("small", 2);
+        large = seed("large", 40);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deviceListsRunConstantQueries() {
+        assertThat(statements(small, () -> deviceService.getUserDevices()))
+                .isEqualTo(statements(large, () -> deviceService.getUserDevices()))
+                .isEqualTo(1);
+        assertThat(statements(small, () -> deviceService.getHomeDevices(small.home().getId())))
+                .isEqualTo(statements(large, () -> deviceService.getHomeDevices(large.home().getId())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void devicePagesRunConstantQueriesAndChainCursors() {
+        assertThat(statements(small, () -> deviceService.getUserDevices(null, 10)))
+                .isEqualTo(statements(large, () -> deviceService.getUserDevices(null, 10)))
+                .isEqualTo(1);
+
+        statements(large, () -> {
+            CursorPageDto<DeviceDto> first = deviceService.getUserDevices(null, 30);
+            CursorPageDto<DeviceDto> second = deviceService.getUserDevices(first.getNextCursor(), 30);
+            CursorPageDto<DeviceDto> last = deviceService.getUserDevices(second.getNextCursor(), 30);
+
+            assertThat(first.getItems()).hasSize(30);
+            assertThat(second.getItems()).hasSize(30);
+            assertThat(last.getItems()).hasSize(20);
+            assertThat(last.getNextCursor()).isNull();
+            assertThat(second.getItems().getFirst().getId()).isGreaterThan(first.getNextCursor());
+        });
+    }
+
+    @Test
+    void deviceOwnershipChecksRunConstantQueries() {
+        assertThat(statements(small, () -> deviceService.updateDeviceStatus(small.device().getId(), DeviceStatus.ONLINE)))
+                .isEqualTo(statements(large, () -> deviceService.updateDeviceStatus(large.device().getId(), DeviceStatus.ONLINE)))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void statusUpdateWritesThroughTheHomeDeviceListAndPowerTotal() {
+        Long homeId = small.home().getId();
+        Long userId = small.user().getId();
+
+        statements(small, () -> deviceService.updateDeviceStatus(small.device().getId(), DeviceStatus.ONLINE));
+
+        verify(cacheService).putListEntry(eq("devices_home"), eq(homeId + ":user:" + userId),
+                eq(small.device().getId()), any(DeviceDto.class));
+        verify(powerConsumptionService).applyDelta(eq(homeId), anyDouble());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roomDeletionTakesItsOnlineDevicesOffThePowerTotalAndPublishesTheirDeletion() {
+        Long homeId = small.home().getId();
+        Device device = deviceRepository.findById(small.device().getId()).orElseThrow();
+        device.setStatus(DeviceStatus.ONLINE);
+        device.setPowerConsumption(60.0);
+        entityManager.flush();
+
+        statements(small, () -> roomService.deleteRoom(device.getRoom().getId()));
+
+        verify(powerConsumptionService).applyDelta(homeId, -60.0);
+        assertThat(deviceRepository.findById(device.getId())).isEmpty();
+        ArgumentCaptor<List<DeviceChangeEventDto>> events = ArgumentCaptor.forClass(List.class);
+        verify(deviceEventService).publish(events.capture());
+        assertThat(events.getValue()).hasSize(2).allSatisfy(event -> {
+            assertThat(event.getType()).isEqualTo(DeviceChangeType.DELETED);
+            assertThat(event.getHomeId()).isEqualTo(homeId);
+        }).extracting(DeviceChangeEventDto::getDeviceId).contains(device.getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void homeDeletionPublishesTheDeletionOfItsDevices() {
+        Long homeId = small.home().getId();
+
+        statements(small, () -> homeService.deleteHome(homeId));
+
+        ArgumentCaptor<List<DeviceChangeEventDto>> events = ArgumentCaptor.forClass(List.class);
+        verify(deviceEventService).publish(events.capture());
+        assertThat(events.getValue()).hasSize(2)
+                .allMatch(event -> event.getType() == DeviceChangeType.DELETED && homeId.equals(event.getHomeId()));
+        verify(powerConsumptionService).removeHome(homeId);
+    }
+
+    @Test
+    void bulkStatusUpdateRunsConstantQueries() {
+        List<Long> smallIds = deviceIds(small);
+        List<Long> largeIds = deviceIds(large);
+
+        assertThat(statements(small, () -> deviceService.updateDeviceStatuses(smallIds, DeviceStatus.ONLINE)))
+                .isEqualTo(statements(large, () -> deviceService.updateDeviceStatuses(largeIds, DeviceStatus.ONLINE)))
+                .isEqualTo(2);
+
+        entityManager.clear();
+        assertThat(deviceRepository.findAllById(largeIds))
+                .hasSize(80)
+                .allSatisfy(device -> {
+                    assertThat(device.getStatus()).isEqualTo(DeviceStatus.ONLINE);
+                    assertThat(device.getVersion()).isEqualTo(1L);
+                });
+    }
+
+    @Test
+    void perDeviceStatusUpdateIsOneBatch() {
+        Map<Long, DeviceStatus> statuses = new LinkedHashMap<>();
+        List<Long> homeIds = deviceRepository.findByHomeIdAndHomeUser(large.home().getId(), large.user()).stream()
+                .map(Device::getId).toList();
+        for (int i = 0; i < homeIds.size(); i++) {
+            statuses.put(homeIds.get(i), i % 2 == 0 ? DeviceStatus.ONLINE : DeviceStatus.ERROR);
+        }
+
+        // one ownership lookup, then all 40 versioned UPDATEs in one JDBC batch
+        assertThat(statements(large, () -> deviceService.updateDeviceStatuses(statuses, "Scene: test")))
+                .isEqualTo(2);
+
+        entityManager.clear();
+        assertThat(deviceRepository.findAllById(homeIds))
+                .hasSize(40)
+                .allSatisfy(device -> {
+                    assertThat(device.getStatus()).isEqualTo(statuses.get(device.getId()));
+                    assertThat(device.getVersion()).isEqualTo(1L);
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void groupStatusUpdateRunsConstantQueriesAndPublishesOneEvent() {
+        DeviceGroup smallGroup = group(small);
+        DeviceGroup largeGroup = group(large);
+
+        // one join to resolve the members, one set-based UPDATE
+        assertThat(statements(small, () -> deviceService.updateGroupStatus(smallGroup.getId(), DeviceStatus.ONLINE)))
+                .isEqualTo(statements(large, () -> deviceService.updateGroupStatus(largeGroup.getId(), DeviceStatus.ONLINE)))
+                .isEqualTo(2);
+
+        ArgumentCaptor<List<DeviceChangeEventDto>> events = ArgumentCaptor.forClass(List.class);
+        verify(deviceEventService, times(2)).publish(events.capture());
+        assertThat(events.getValue()).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(DeviceChangeType.GROUP_STATUS_CHANGED);
+            assertThat(event.getGroupId()).isEqualTo(largeGroup.getId());
+            assertThat(event.getDeviceIds()).hasSize(40);
+        });
+    }
+
+    @Test
+    void bulkStatusUpdateRejectsForeignDevices() {
+        List<Long> ids = List.of(small.device().getId(), large.device().getId());
+
+        assertThatThrownBy(() -> statements(small, () -> deviceService.updateDeviceStatuses(ids, DeviceStatus.ONLINE)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void provisioningBatchesInserts() {
+        HomeProvisioningRequestDto request = provisioningRequest("batched", 10, 100);
+
+        long statementCount = statements(small, () -> {
+            HomeProvisioningResultDto result = provisioningService.provisionHome(small.home().getId(), request);
+            assertThat(result.getRooms()).hasSize(10).allMatch(room -> room.getId() != null);
+            assertThat(result.getDevices()).hasSize(1000).allMatch(device -> device.getRoomId() != null);
+        });
+
+        // one home lookup, then one sequence call and one JDBC batch per 50 rows
+        assertThat(statementCount).isLessThanOrEqualTo(1 + 2 * 2 + 2 * (1000 / 50));
+        assertThat(deviceRepository.findByHomeIdAndHomeUser(small.home().getId(), small.user())).hasSize(1002);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkProvisioning() {
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        Map<Integer, Long> statementCounts = new LinkedHashMap<>();
+        Map<Integer, Long> warmedMillis = new LinkedHashMap<>();
+        for (int round = 0; round < 4; round++) {
+            for (int batchSize : new int[]{1, 50}) {
+                session.setJdbcBatchSize(batchSize);
+                HomeProvisioningRequestDto request = provisioningRequest("bench-" + round + "-" + batchSize, 50, 100);
+
+                long start = System.nanoTime();
+                long statementCount = statements(large, () -> provisioningService.provisionHome(large.home().getId(), request));
+                long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+                log.info("round={} batch_size={} devices=5000 statements={} {} ms {} devices/s",
+                        round, batchSize, statementCount, elapsedMillis, 5000 * 1000L / elapsedMillis);
+                statementCounts.put(batchSize, statementCount);
+                if (round > 0) {
+                    warmedMillis.merge(batchSize, elapsedMillis, Long::sum);
+                }
+            }
+        }
+
+        assertThat(statementCounts.get(50)).isLessThan(statementCounts.get(1) / 40);
+        assertThat(warmedMillis.get(50)).as("batched vs unbatched ms after warm-up").isLessThan(warmedMillis.get(1));
+    }
+
+    @Test
+    void roomAndHomeListsRunConstantQueries() {
+        assertThat(statements(small, () -> roomService.getUserRooms()))
+                .isEqualTo(statements(large, () -> roomService.getUserRooms()))
+                .isEqualTo(1);
+        assertThat(statements(small, () -> roomService.getHomeRooms(small.home().getId())))
+                .isEqualTo(statements(large, () -> roomService.getHomeRooms(large.home().getId())))
+                .isEqualTo(1);
+        assertThat(statements(small, () -> homeService.getUserHomes()))
+                .isEqualTo(statements(large, () -> homeService.getUserHomes()))
+                .isEqualTo(1);
+    }
+
+    private long statements(Seed seed, Runnable call) {
+        User principal = new User();
+        principal.setId(seed.user().getId());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static HomeProvisioningRequestDto provisioningRequest(String prefix, int roomCount, int devicesPerRoom) {
+        HomeProvisioningRequestDto request = new HomeProvisioningRequestDto();
+        for (int r = 0; r < roomCount; r++) {
+            RoomProvisioningDto room = new RoomProvisioningDto();
+            room.setName(prefix + " room " + r);
+            room.setType(RoomType.BEDROOM);
+            for (int d = 0; d < devicesPerRoom; d++) {
+                DeviceDto device = new DeviceDto();
+                device.setName(prefix + " device " + r + "-" + d);
+                device.setDeviceId(prefix + "-" + r + "-" + d);
+                device.setType(DeviceType.SENSOR);
+                device.setPowerConsumption(1.5);
+                room.getDevices().add(device);
+            }
+            request.getRooms().add(room);
+        }
+        return request;
+    }
+
+    private List<Long> deviceIds(Seed seed) {
+        return deviceRepository.findByHomeUser(seed.user()).stream().map(Device::getId).toList();
+    }
+
+    private DeviceGroup group(Seed seed) {
+        DeviceGroup group = new DeviceGroup();
+        group.setName(seed.home().getName() + " group");
+        group.setHome(seed.home());
+        group.setDevices(new HashSet<>(deviceRepository.findByHomeIdAndHomeUser(seed.home().getId(), seed.user())));
+        entityManager.persist(group);
+        entityManager.flush();
+        return group;
+    }
+
+    private Seed seed(String name, int devicesPerHome) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setFirstName(name);
+        user.setLastName(name);
+        entityManager.persist(user);
+
+        Home home = null;
+        Device device = null;
+        for (int h = 0; h < 2; h++) {
+            home = new Home();
+            home.setName(name + " home " + h);
+            home.setUser(user);
+            entityManager.persist(home);
+
+            Room room = new Room();
+            room.setName(name + " room " + h);
+            room.setType(RoomType.LIVING_ROOM);
+            room.setHome(home);
+            entityManager.persist(room);
+
+            for (int d = 0; d < devicesPerHome; d++) {
+                device = new Device();
+                device.setName(name + " device " + h + "-" + d);
+                device.setDeviceId(name + "-" + h + "-" + d);
+                device.setType(DeviceType.LIGHT);
+                device.setHome(home);
+                device.setRoom(room);
+                entityManager.persist(device);
+            }
+        }
+        entityManager.flush();
+        return new Seed(user, home, device);
+    }
+
+    private record Seed(User user, Home home, Device device) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.shas.smart_home_automation_system.enums.AutomationTriggerType;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.util.AutomationRuleIndex.CompiledRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AutomationRuleIndexTest {
+
+    private static final Map<Object, Long> HOME_DEVICES = Map.of(1L, 1L, 2L, 2L, "light-1", 3L);
+    private final Function<Object, Long> resolver = reference ->
+            HOME_DEVICES.get(reference instanceof Number number ? (Object) number.longValue() : reference);
+
+    @Test
+    void matchesStatusRulesOfTheTriggerDeviceOnly() {
+        CompiledRule onlineRule = compile(1L, AutomationTriggerType.DEVICE_STATUS,
+                Map.of("deviceId", 1, "status", "ONLINE", "from", "OFFLINE"),
+                Map.of("devices", List.of("light-1", 2), "action", "TURN_ON"));
+        AutomationRuleIndex index = AutomationRuleIndex.of(List.of(onlineRule));
+
+        assertThat(onlineRule.getTargetDeviceIds()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(onlineRule.getTargetStatus()).isEqualTo(DeviceStatus.ONLINE);
+        assertThat(index.matchStatus(1L, DeviceStatus.OFFLINE, DeviceStatus.ONLINE)).containsExactly(onlineRule);
+        assertThat(index.matchStatus(1L, DeviceStatus.ERROR, DeviceStatus.ONLINE)).isEmpty();
+        assertThat(index.matchStatus(2L, DeviceStatus.OFFLINE, DeviceStatus.ONLINE)).isEmpty();
+        assertThat(index.triggerDevices()).containsExactly(1L);
+    }
+
+    @Test
+    void metricRulesFireOnceUntilTheConditionClears() {
+        CompiledRule hotRule = compile(2L, AutomationTriggerType.METRIC_THRESHOLD,
+                Map.of("deviceId", 2, "metricType", "temperature", "operator", "GT", "value", 28),
+                Map.of("devices", List.of(1), "action", "TURN_OFF"));
+        AutomationRuleIndex index = AutomationRuleIndex.of(List.of(hotRule));
+
+        assertThat(index.hasMetricRules(2L, "temperature")).isTrue();
+        assertThat(index.hasMetricRules(2L, "humidity")).isFalse();
+        assertThat(index.matchMetric(2L, "temperature", 30)).containsExactly(hotRule);
+        assertThat(index.matchMetric(2L, "temperature", 31)).isEmpty();
+        assertThat(index.matchMetric(2L, "temperature", 20)).isEmpty();
+        assertThat(index.matchMetric(2L, "temperature", 29)).containsExactly(hotRule);
+    }
+
+    @Test
+    void reloadedIndexKeepsABreachedThresholdFromFiringAgain() {
+        Map<String, Object> condition = Map.of("deviceId", 2, "metricType", "temperature", "operator", "GT", "value", 28);
+        Map<String, Object> action = Map.of("devices", List.of(1), "action", "TURN_OFF");
+        AutomationRuleIndex before = AutomationRuleIndex.of(List.of(compile(2L, AutomationTriggerType.METRIC_THRESHOLD,
+                condition, action)));
+        assertThat(before.matchMetric(2L, "temperature", 30)).hasSize(1);
+
+        CompiledRule recompiled = compile(2L, AutomationTriggerType.METRIC_THRESHOLD, condition, action);
+        CompiledRule added = compile(6L, AutomationTriggerType.METRIC_THRESHOLD, condition, action);
+        AutomationRuleIndex after = AutomationRuleIndex.of(List.of(recompiled, added));
+        after.inheritState(before);
+
+        assertThat(after.matchMetric(2L, "temperature", 31)).containsExactly(added);
+    }
+
+    @Test
+    void rejectsMalformedRules() {
+        assertThatThrownBy(() -> compile(3L, AutomationTriggerType.DEVICE_STATUS,
+                Map.of("deviceId", 99, "status", "ONLINE"),
+                Map.of("devices", List.of(1), "action", "TURN_ON")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compile(4L, AutomationTriggerType.METRIC_THRESHOLD,
+                Map.of("deviceId", 1, "metricType", "temperature", "operator", "ABOUT", "value", 1),
+                Map.of("devices", List.of(1), "action", "TURN_ON")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compile(5L, AutomationTriggerType.TIME,
+                Map.of("deviceId", 1), Map.of("devices", List.of(1), "action", "TURN_ON")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CompiledRule compile(Long id, AutomationTriggerType triggerType,
+                                 Map<String, Object> condition, Map<String, Object> action) {
+        return AutomationRuleIndex.compile(id, 10L, "rule-" + id, triggerType, condition, action, resolver);
+    }
+}
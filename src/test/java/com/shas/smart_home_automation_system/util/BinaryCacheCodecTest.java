@@ -0,0 +1,136 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.shas.smart_home_automation_system.dto.DeviceDto;
+import com.shas.smart_home_automation_system.dto.HomeDto;
+import com.shas.smart_home_automation_system.enums.DeviceStatus;
+import com.shas.smart_home_automation_system.enums.DeviceType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class BinaryCacheCodecTest {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper());
+    private final BinaryCacheCodec codec = new BinaryCacheCodec(new CacheTypeRegistry(), jsonSerializer, true, 1024);
+
+    @Test
+    void roundTripsDeviceListAsTypedDtos() {
+        List<DeviceDto> devices = devices(25);
+
+        Object decoded = codec.deserialize(codec.serialize(devices));
+
+        assertThat(decoded).isInstanceOf(List.class);
+        assertThat((List<?>) decoded).allMatch(DeviceDto.class::isInstance);
+        assertThat(decoded).isEqualTo(devices);
+    }
+
+    @Test
+    void roundTripsScalarsAndEmptyLists() {
+        assertThat(codec.deserialize(codec.serialize(42.5))).isEqualTo(42.5);
+        assertThat(codec.deserialize(codec.serialize(List.of()))).isEqualTo(List.of());
+
+        HomeDto home = new HomeDto(1L, "Home", "Street", "UTC", 2L, LocalDateTime.of(2024, 1, 1, 12, 0));
+        assertThat(codec.deserialize(codec.serialize(home))).isEqualTo(home);
+    }
+
+    @Test
+    void compressesLargePayloads() {
+        List<DeviceDto> devices = devices(1000);
+
+        byte[] encoded = codec.serialize(devices);
+        BinaryCacheCodec uncompressed = new BinaryCacheCodec(new CacheTypeRegistry(), jsonSerializer, false, 0);
+
+        assertThat(encoded.length).isLessThan(uncompressed.serialize(devices).length);
+        assertThat(codec.deserialize(encoded)).isEqualTo(devices);
+    }
+
+    @Test
+    void fallsBackToJsonForUnregisteredTypesAndLegacyEntries() {
+        Map<String, String> unregistered = new HashMap<>();
+        unregistered.put("name", "unregistered");
+        assertThat(codec.deserialize(codec.serialize(unregistered))).isEqualTo(unregistered);
+
+        List<Long> leadingNull = Arrays.asList(null, 2L);
+        assertThat(new CacheTypeRegistry().idFor(leadingNull)).isNull();
+        assertThat(codec.deserialize(codec.serialize(leadingNull))).isEqualTo(leadingNull);
+
+        HomeDto legacy = new HomeDto(7L, "Legacy", null, "UTC", 1L, null);
+        assertThat(codec.deserialize(jsonSerializer.serialize(legacy))).isEqualTo(legacy);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstGenericJacksonSerializer() {
+        for (int size : new int[]{1, 100, 1000}) {
+            List<DeviceDto> devices = devices(size);
+            Measurement json = measure("json", size, jsonSerializer, devices);
+            Measurement binary = measure("binary", size, codec, devices);
+
+            assertThat(binary.bytes()).as("binary vs json bytes, %d devices", size).isLessThan(json.bytes() / 2);
+            assertThat(binary.decodeNanos()).as("binary vs json decode ns, %d devices", size)
+                    .isLessThan(json.decodeNanos() / 2);
+        }
+    }
+
+    private Measurement measure(String label, int size, RedisSerializer<Object> serializer, Object value) {
+        int iterations = Math.max(200, 200_000 / size);
+        byte[] bytes = serializer.serialize(value);
+        for (int i = 0; i < iterations; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes = serializer.serialize(value);
+        }
+        long encodeNanos = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            serializer.deserialize(bytes);
+        }
+        long decodeNanos = (System.nanoTime() - start) / iterations;
+
+        log.info("{} devices={} bytes={} encode={} ns decode={} ns", label, size, bytes.length, encodeNanos, decodeNanos);
+        return new Measurement(bytes.length, encodeNanos, decodeNanos);
+    }
+
+    private record Measurement(int bytes, long encodeNanos, long decodeNanos) {
+    }
+
+    private static List<DeviceDto> devices(int count) {
+        List<DeviceDto> devices = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            devices.add(new DeviceDto(i, "Device " + i, "device-" + i, DeviceType.LIGHT,
+                    i % 2 == 0 ? DeviceStatus.ONLINE : DeviceStatus.OFFLINE, 1L, i % 5, "Philips", "Hue White",
+                    8.5, LocalDateTime.of(2024, 1, 1, 12, 0)));
+        }
+        return devices;
+    }
+
+    private static ObjectMapper redisObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(
+                objectMapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.As.PROPERTY
+        );
+        return objectMapper;
+    }
+}
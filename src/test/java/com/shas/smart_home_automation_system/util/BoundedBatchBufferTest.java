@@ -0,0 +1,70 @@
+package com.shas.smart_home_automation_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedBatchBufferTest {
+
+    @Test
+    void rejectsBatchesThatDoNotFitWhole() {
+        BoundedBatchBuffer<Integer> buffer = new BoundedBatchBuffer<>(5);
+
+        assertThat(buffer.offerAll(List.of(1, 2, 3))).isTrue();
+        assertThat(buffer.offerAll(List.of(4, 5, 6))).isFalse();
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.offer(6)).isFalse();
+
+        assertThat(buffer.drain(2)).containsExactly(1, 2);
+        assertThat(buffer.drain(10)).containsExactly(3, 4, 5);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.offerAll(List.of(7, 8, 9, 10, 11))).isTrue();
+    }
+
+    @Test
+    void neverExceedsCapacityUnderConcurrentProducers() throws InterruptedException {
+        int producers = 8;
+        int batchesPerProducer = 2_000;
+        BoundedBatchBuffer<Integer> buffer = new BoundedBatchBuffer<>(1_000);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.execute(() -> {
+                for (int b = 0; b < batchesPerProducer; b++) {
+                    int base = (producer * batchesPerProducer + b) * 10;
+                    List<Integer> batch = new ArrayList<>(10);
+                    for (int i = 0; i < 10; i++) {
+                        batch.add(base + i);
+                    }
+                    if (buffer.offerAll(batch)) {
+                        accepted.addAndGet(batch.size());
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Integer> drained = new HashSet<>();
+        while (done.getCount() > 0 || buffer.size() > 0) {
+            assertThat(buffer.size()).isLessThanOrEqualTo(buffer.capacity());
+            drained.addAll(buffer.drain(100));
+        }
+        executor.shutdown();
+
+        assertThat(drained).hasSize(accepted.get());
+    }
+}
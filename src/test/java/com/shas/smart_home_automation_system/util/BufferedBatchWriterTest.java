@@ -0,0 +1,74 @@
+package com.shas.smart_home_automation_system.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferedBatchWriterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Integer>> written = new ArrayList<>();
+
+    @Test
+    void flushesInBatchesAndRejectsWhatDoesNotFit() {
+        BufferedBatchWriter<Integer> writer = writer(batch -> {
+            written.add(batch);
+            return batch.size();
+        }, null);
+
+        assertThat(writer.offerAll(List.of(1, 2, 3, 4, 5))).isTrue();
+        assertThat(writer.offerAll(List.of(6))).isFalse();
+        writer.flush();
+
+        assertThat(written).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+        assertThat(count("accepted")).isEqualTo(5);
+        assertThat(count("rejected")).isEqualTo(1);
+        assertThat(count("written")).isEqualTo(5);
+        assertThat(writer.size()).isZero();
+    }
+
+    @Test
+    void retriesFailedBatchesThroughTheFallbackAndDropsWhatItSkips() {
+        BufferedBatchWriter<Integer> writer = writer(batch -> {
+            throw new IllegalStateException("copy failed");
+        }, batch -> {
+            written.add(batch);
+            return batch.size() - 1;
+        });
+
+        writer.offerAll(List.of(1, 2, 3));
+        writer.flush();
+
+        assertThat(written).containsExactly(List.of(1, 2), List.of(3));
+        assertThat(count("written")).isEqualTo(1);
+        assertThat(count("dropped")).isEqualTo(2);
+    }
+
+    @Test
+    void dropsFailedBatchesWithoutAFallback() {
+        BufferedBatchWriter<Integer> writer = writer(batch -> {
+            throw new IllegalStateException("insert failed");
+        }, null);
+
+        writer.offerAll(List.of(1, 2, 3));
+        writer.flush();
+
+        assertThat(count("dropped")).isEqualTo(3);
+        assertThat(writer.size()).isZero();
+    }
+
+    private BufferedBatchWriter<Integer> writer(ToLongFunction<List<Integer>> sink,
+                                                ToLongFunction<List<Integer>> fallback) {
+        return new BufferedBatchWriter<>("test", "items", 5, 2, 1000, sink, fallback, meterRegistry, "test");
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("test.items", "result", result).count();
+    }
+}
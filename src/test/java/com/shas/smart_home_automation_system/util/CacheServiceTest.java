@@ -0,0 +1,257 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.shas.smart_home_automation_system.config.NearCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheServiceTest {
+
+    private static final int THREADS = 8;
+
+    private final RedisTemplate<String, Object> redisTemplate = mock();
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final ValueOperations<String, String> lockOperations = mock();
+    private final HashOperations<String, Object, Object> hashOperations = mock();
+    private final NearCache nearCache = new NearCache(new NearCacheProperties(), stringRedisTemplate, new SimpleMeterRegistry());
+    private final CacheService cacheService = new CacheService(redisTemplate, stringRedisTemplate, nearCache, new SimpleMeterRegistry());
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void setUp() {
+        ReflectionTestUtils.setField(cacheService, "loadLockTtl", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(cacheService, "loadLockMaxWait", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(cacheService, "earlyRefreshBeta", 1.0);
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) RedisSerializer.java());
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(null, -2L));
+        when(stringRedisTemplate.opsForValue()).thenReturn(lockOperations);
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(lockOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void servesRepeatedReadsFromNearCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = cacheService.getOrLoad("homes", "home:1", () -> "home-" + loads.incrementAndGet(), 1, TimeUnit.MINUTES);
+        String second = cacheService.getOrLoad("homes", "home:1", () -> "home-" + loads.incrementAndGet(), 1, TimeUnit.MINUTES);
+
+        assertThat(first).isEqualTo("home-1");
+        assertThat(second).isEqualTo("home-1");
+        assertThat(loads).hasValue(1);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(stringRedisTemplate, times(1)).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentMissesForOneKeyRunTheLoaderOnce() throws Exception {
+        CountDownLatch readers = new CountDownLatch(THREADS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            readers.countDown();
+            return Arrays.asList(null, -2L);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> cacheService.getOrLoad("homes", "home:1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "home-1";
+                }, 1, TimeUnit.MINUTES)));
+            }
+            assertThat(readers.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("home-1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        verify(lockOperations, times(1)).setIfAbsent(eq("smarthome:homes:home:1:lock"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void followerLoadsDirectlyWhenTheInFlightLoadHangs() throws Exception {
+        ReflectionTestUtils.setField(cacheService, "loadLockMaxWait", Duration.ofMillis(100));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> cacheService.getOrLoad("homes", "home:1", () -> {
+                loading.countDown();
+                await(release);
+                return "leader";
+            }, 1, TimeUnit.MINUTES));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            String follower = cacheService.getOrLoad("homes", "home:1", () -> "follower", 1, TimeUnit.MINUTES);
+
+            assertThat(follower).isEqualTo("follower");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tagEvictionDropsOnlyTaggedKeysFromNearCache() {
+        RedisConnection connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+        when(stringRedisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+        cacheService.getOrLoad("devices_user", "1", () -> "user-1", 1, TimeUnit.MINUTES, "devices:user:1");
+        cacheService.getOrLoad("devices_user", "2", () -> "user-2", 1, TimeUnit.MINUTES, "devices:user:2");
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("smarthome:tag:devices:user:1"))))
+                .thenReturn(List.of("smarthome:devices_user:1"));
+
+        cacheService.evictTags("devices:user:1");
+
+        assertThat(nearCache.contains("smarthome:devices_user:1")).isFalse();
+        assertThat(nearCache.contains("smarthome:devices_user:2")).isTrue();
+        // the key joins its tag set in the same MULTI/EXEC as the value write
+        InOrder order = inOrder(connection, connection.stringCommands(), connection.scriptingCommands());
+        order.verify(connection).multi();
+        order.verify(connection.stringCommands()).set(eq(bytes("smarthome:devices_user:1")), any(), any(), any());
+        order.verify(connection.scriptingCommands()).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                eq(bytes("smarthome:tag:devices:user:1")), eq(bytes("60000")), eq(bytes("smarthome:devices_user:1")));
+        order.verify(connection).exec();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listsComeBackInEntryIdOrderWhetherLoadedOrCached() {
+        List<String> loaded = cacheService.getOrLoadList("devices_user", "1", Long::valueOf,
+                () -> List.of("12", "3", "7"), 1, TimeUnit.MINUTES);
+        Map<Object, Object> hash = new LinkedHashMap<>();
+        hash.put("~loaded", true);
+        hash.put("12", "12");
+        hash.put("3", "3");
+        hash.put("7", "7");
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(hash, 60_000L));
+        List<String> cached = cacheService.getOrLoadList("devices_user", "2", Long::valueOf,
+                () -> List.of("unused"), 1, TimeUnit.MINUTES);
+
+        assertThat(loaded).containsExactly("3", "7", "12");
+        assertThat(cached).containsExactly("3", "7", "12");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listEntryWriteThroughPatchesRedisAndDropsNearCopy() {
+        cacheService.getOrLoadList("devices_user", "1", Long::valueOf, () -> List.of("1", "2"), 1, TimeUnit.MINUTES);
+        assertThat(nearCache.contains("smarthome:devices_user:1")).isTrue();
+        when(stringRedisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("smarthome:devices_user:1")), any(), any(), any())).thenReturn(1L);
+
+        cacheService.putListEntry("devices_user", "1", 2L, "2");
+
+        assertThat(nearCache.contains("smarthome:devices_user:1")).isFalse();
+        verify(stringRedisTemplate, never()).delete("smarthome:devices_user:1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedListEntryWriteThroughEvictsTheList() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(), any(), any())).thenThrow(new IllegalStateException("redis down"));
+
+        cacheService.putListEntry("devices_user", "1", 2L, "2");
+
+        verify(stringRedisTemplate).delete("smarthome:devices_user:1");
+    }
+
+    @Test
+    void listEntryRemovalDeletesTheHashField() {
+        cacheService.getOrLoadList("devices_user", "1", Long::valueOf, () -> List.of("1", "2"), 1, TimeUnit.MINUTES);
+
+        cacheService.removeListEntry("devices_user", "1", 2L);
+
+        verify(hashOperations).delete("smarthome:devices_user:1", "2");
+        assertThat(nearCache.contains("smarthome:devices_user:1")).isFalse();
+    }
+
+    @Test
+    void mutationsInsideATransactionWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheService.evict("homes", "home:1");
+        verify(stringRedisTemplate, never()).delete(anyString());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(stringRedisTemplate).delete("smarthome:homes:home:1");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
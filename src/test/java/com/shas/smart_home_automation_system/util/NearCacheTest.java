@@ -0,0 +1,98 @@
+package com.shas.smart_home_automation_system.util;
+
+import com.shas.smart_home_automation_system.config.NearCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class NearCacheTest {
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final NearCacheProperties properties = new NearCacheProperties();
+    private final NearCache nearCache = new NearCache(properties, stringRedisTemplate, new SimpleMeterRegistry());
+
+    @Test
+    void dropsKeysNamedByPeerMessage() {
+        put("smarthome:devices:1", "smarthome:devices:2", "smarthome:devices:3");
+
+        nearCache.onMessage(message("peer|K|smarthome:devices:1\nsmarthome:devices:2"), null);
+
+        assertThat(nearCache.contains("smarthome:devices:1")).isFalse();
+        assertThat(nearCache.contains("smarthome:devices:2")).isFalse();
+        assertThat(nearCache.contains("smarthome:devices:3")).isTrue();
+    }
+
+    @Test
+    void dropsKeysUnderPrefixNamedByPeerMessage() {
+        put("smarthome:rooms:userRooms:1", "smarthome:rooms:userRooms:2", "smarthome:homes:home:1");
+
+        nearCache.onMessage(message("peer|P|smarthome:rooms:"), null);
+
+        assertThat(nearCache.contains("smarthome:rooms:userRooms:1")).isFalse();
+        assertThat(nearCache.contains("smarthome:rooms:userRooms:2")).isFalse();
+        assertThat(nearCache.contains("smarthome:homes:home:1")).isTrue();
+    }
+
+    @Test
+    void ignoresItsOwnAndMalformedMessages() {
+        put("smarthome:devices:1");
+        nearCache.invalidatePeers("smarthome:devices:1");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(NearCache.INVALIDATION_CHANNEL), published.capture());
+
+        nearCache.onMessage(message(published.getValue()), null);
+        nearCache.onMessage(message("smarthome:devices:1"), null);
+        nearCache.onMessage(message("peer|X|smarthome:devices:1"), null);
+
+        assertThat(published.getValue()).endsWith("|K|smarthome:devices:1");
+        assertThat(nearCache.contains("smarthome:devices:1")).isTrue();
+    }
+
+    @Test
+    void invalidationDropsLocallyAndPublishesAllKeysInOneMessage() {
+        put("smarthome:devices:1", "smarthome:devices:2");
+
+        nearCache.invalidateAll(List.of("smarthome:devices:1", "smarthome:devices:2"));
+
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(NearCache.INVALIDATION_CHANNEL), published.capture());
+        assertThat(published.getValue()).endsWith("|K|smarthome:devices:1\nsmarthome:devices:2");
+        assertThat(nearCache.contains("smarthome:devices:1")).isFalse();
+        assertThat(nearCache.contains("smarthome:devices:2")).isFalse();
+    }
+
+    @Test
+    void disabledCacheStoresAndPublishesNothing() {
+        properties.setEnabled(false);
+
+        put("smarthome:devices:1");
+        nearCache.invalidate("smarthome:devices:1");
+
+        assertThat(nearCache.get("smarthome:devices:1")).isNull();
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    private void put(String... cacheKeys) {
+        for (String cacheKey : cacheKeys) {
+            nearCache.put("devices", cacheKey, cacheKey, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(NearCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}